@@ -0,0 +1,110 @@
+package io.papermc.paper.event.player;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+import org.jetbrains.annotations.ApiStatus;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Called when the adaptive view distance controller changes the send or simulation distance of a player.
+ * <p>
+ * The distances reported here are upper bounds applied on top of the distances configured for the world and the player,
+ * {@link Player#getSendViewDistance()} and {@link Player#getSimulationDistance()} reflect them once the player's
+ * chunk loader has been updated.
+ */
+@NullMarked
+public class PlayerAdaptiveViewDistanceChangeEvent extends PlayerEvent {
+
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final int previousSendViewDistance;
+    private final int sendViewDistance;
+    private final int previousSimulationDistance;
+    private final int simulationDistance;
+    private final Cause cause;
+
+    @ApiStatus.Internal
+    public PlayerAdaptiveViewDistanceChangeEvent(final Player player, final int previousSendViewDistance, final int sendViewDistance,
+                                                 final int previousSimulationDistance, final int simulationDistance, final Cause cause) {
+        super(player);
+        this.previousSendViewDistance = previousSendViewDistance;
+        this.sendViewDistance = sendViewDistance;
+        this.previousSimulationDistance = previousSimulationDistance;
+        this.simulationDistance = simulationDistance;
+        this.cause = cause;
+    }
+
+    /**
+     * Gets the send view distance the player had before this change.
+     *
+     * @return the previous send view distance
+     */
+    public int getPreviousSendViewDistance() {
+        return this.previousSendViewDistance;
+    }
+
+    /**
+     * Gets the send view distance the player has after this change.
+     *
+     * @return the new send view distance
+     */
+    public int getSendViewDistance() {
+        return this.sendViewDistance;
+    }
+
+    /**
+     * Gets the simulation distance the player had before this change.
+     *
+     * @return the previous simulation distance
+     */
+    public int getPreviousSimulationDistance() {
+        return this.previousSimulationDistance;
+    }
+
+    /**
+     * Gets the simulation distance the player has after this change.
+     *
+     * @return the new simulation distance
+     */
+    public int getSimulationDistance() {
+        return this.simulationDistance;
+    }
+
+    /**
+     * Gets the reason the distances were changed.
+     *
+     * @return the cause
+     */
+    public Cause getCause() {
+        return this.cause;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+
+    public enum Cause {
+        /**
+         * The server's average tick time is over the configured limit.
+         */
+        SERVER_LOAD,
+        /**
+         * Too many chunks are waiting to be generated for the player.
+         */
+        GENERATION_BACKLOG,
+        /**
+         * The player's connection can't keep up with the data sent to it.
+         */
+        CONNECTION_BACKLOG,
+        /**
+         * The server has been healthy for long enough to grow the distances again.
+         */
+        RECOVERED
+    }
+}
@@ -1145,6 +1145,45 @@ public final class Bukkit {
         return server.addRecipe(recipe, resendRecipes);
     }
 
+    // Paper start - batch recipe changes
+    /**
+     * Adds all given recipes to the crafting manager at once.
+     * <p>
+     * Unlike adding them one by one with {@link #addRecipe(Recipe)}, the crafting manager
+     * is only rebuilt and the recipes are only resent to clients once.
+     *
+     * @param recipes the recipes to add
+     * @return true if any recipe was added
+     * @throws IllegalArgumentException if a recipe cannot be added or its key is already in use,
+     *     in which case none of the recipes are added
+     * @see #modifyRecipes(Collection, Collection)
+     */
+    public static boolean addRecipes(@NotNull Collection<? extends Recipe> recipes) {
+        return server.addRecipes(recipes);
+    }
+
+    /**
+     * Removes and adds the given recipes at once.
+     * <p>
+     * Unlike {@link #removeRecipe(NamespacedKey)} and {@link #addRecipe(Recipe)}, the crafting manager
+     * is only rebuilt and the recipes are only resent to clients once, after all changes are applied.
+     * Removals are applied before additions, so a recipe can be replaced by one with the same key.
+     * <p>
+     * <b>Note that removing a recipe may cause permanent loss of data
+     * associated with that recipe (eg whether it has been discovered by
+     * players).</b>
+     *
+     * @param removals keys of the recipes to remove
+     * @param additions the recipes to add
+     * @return true if any recipe was removed or added
+     * @throws IllegalArgumentException if a recipe cannot be added or its key is already in use,
+     *     in which case no recipe is removed or added
+     */
+    public static boolean modifyRecipes(@NotNull Collection<NamespacedKey> removals, @NotNull Collection<? extends Recipe> additions) {
+        return server.modifyRecipes(removals, additions);
+    }
+    // Paper end - batch recipe changes
+
     /**
      * Get a list of all recipes for a given item. The stack size is ignored
      * in comparisons. If the durability is -1, it will match any data value.
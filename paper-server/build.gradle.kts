@@ -113,6 +113,19 @@ configurations.named(log4jPlugins.compileClasspathConfigurationName) {
 }
 val alsoShade: Configuration by configurations.creating
 
+// The JDK Vector API is an incubator module, which is not part of the API --release compiles against.
+// Classes using it are compiled separately and only loaded when the module is present at runtime.
+val vectorApi = sourceSets.create("vectorApi") {
+    compileClasspath += sourceSets.main.get().output
+}
+configurations.named(vectorApi.compileClasspathConfigurationName) {
+    extendsFrom(configurations.compileClasspath.get())
+}
+tasks.named<JavaCompile>(vectorApi.compileJavaTaskName) {
+    options.release.set(null as Int?)
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
 val runtimeConfiguration by configurations.consumable("runtimeConfiguration") {
     attributes.attribute(Usage.USAGE_ATTRIBUTE, objects.named(Usage.JAVA_RUNTIME))
 }
@@ -147,6 +160,8 @@ dependencies {
     log4jPlugins.annotationProcessorConfigurationName("org.apache.logging.log4j:log4j-core:2.24.1") // Needed to generate meta for our Log4j plugins
     runtimeOnly(log4jPlugins.output)
     alsoShade(log4jPlugins.output)
+    runtimeOnly(vectorApi.output)
+    alsoShade(vectorApi.output)
 
     implementation("com.velocitypowered:velocity-native:3.4.0-SNAPSHOT") {
         isTransitive = false
@@ -264,6 +279,38 @@ tasks.test {
     val provider = objects.newInstance<MockitoAgentProvider>()
     provider.fileCollection.from(mockitoAgent)
     jvmArgumentProviders.add(provider)
+
+    // Lets the sky light tests compare the Vector API layer masks as well
+    jvmArgs("--add-modules=jdk.incubator.vector")
+}
+
+// JMH benchmarks of the server internals, see src/jmh. They bootstrap the registries themselves, the same way the unit
+// tests do, so they run offline without a server.
+val jmh = sourceSets.create("jmh") {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations.named(jmh.compileClasspathConfigurationName) {
+    extendsFrom(configurations.compileClasspath.get())
+}
+configurations.named(jmh.runtimeClasspathConfigurationName) {
+    extendsFrom(configurations.runtimeClasspath.get())
+}
+dependencies {
+    jmh.implementationConfigurationName("org.openjdk.jmh:jmh-core:1.37")
+    jmh.annotationProcessorConfigurationName("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+    jmh.implementationConfigurationName("org.mockito:mockito-core:5.14.1") // For levels which are only read when set up
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks, pass JMH arguments with -PjmhArgs=\"...\""
+    classpath(jmh.runtimeClasspath)
+    mainClass.set("org.openjdk.jmh.Main")
+    javaLauncher.set(project.javaToolchains.launcherFor {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    })
+    args(providers.gradleProperty("jmhArgs").map { it.split(" ").filter(String::isNotBlank) }.getOrElse(emptyList()))
 }
 
 val generatedDir: java.nio.file.Path = layout.projectDirectory.dir("src/generated/java").asFile.toPath()
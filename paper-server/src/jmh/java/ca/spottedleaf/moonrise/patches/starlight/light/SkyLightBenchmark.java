@@ -0,0 +1,105 @@
+package ca.spottedleaf.moonrise.patches.starlight.light;
+
+import io.papermc.paper.benchmark.BenchmarkBootstrap;
+import io.papermc.paper.benchmark.BenchmarkChunks;
+import io.papermc.paper.util.simd.LayerMasks;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.Registry;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.LightChunk;
+import net.minecraft.world.level.chunk.LightChunkGetter;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import net.minecraft.world.level.levelgen.blending.BlendingData;
+import org.mockito.MockMakers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures lighting the sky light of generated chunks with {@link SkyStarLightEngine#light}, with the per column
+ * propagation and with the sky light layers using the scalar and the Vector API masks. Each chunk is lit on its own,
+ * as its neighbours are not loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SkyLightBenchmark {
+
+    private static final int CHUNKS = 16;
+
+    @Param({"columns", "scalar", "vector"})
+    public String propagation;
+
+    private SkyStarLightEngine engine;
+    private LightChunkGetter lightAccess;
+    private final ProtoChunk[] chunks = new ProtoChunk[CHUNKS];
+
+    @Setup
+    public void setup() {
+        final Registry<Biome> biomes = BenchmarkBootstrap.biomes();
+        final LayerMasks masks = switch (this.propagation) {
+            case "columns" -> null;
+            case "scalar" -> LayerMasks.scalar();
+            case "vector" -> LayerMasks.vectorised();
+            default -> throw new IllegalArgumentException(this.propagation);
+        };
+        if (masks == null && !"columns".equals(this.propagation)) {
+            throw new IllegalStateException("jdk.incubator.vector is not available");
+        }
+
+        // the engine only reads the height of the level when it is created, and the light of a chunk without
+        // neighbours never reaches the level
+        final Level level = mock(Level.class, withSettings().mockMaker(MockMakers.SUBCLASS));
+        when(level.getMinSectionY()).thenReturn(BenchmarkChunks.MIN_SECTION);
+        when(level.getMaxSectionY()).thenReturn(BenchmarkChunks.MIN_SECTION + BenchmarkChunks.SECTION_COUNT - 1);
+        this.engine = new SkyStarLightEngine(level, masks);
+        this.lightAccess = new LightChunkGetter() {
+            @Override
+            public LightChunk getChunkForLighting(final int chunkX, final int chunkZ) {
+                return null;
+            }
+
+            @Override
+            public BlockGetter getLevel() {
+                return level;
+            }
+        };
+
+        final LevelHeightAccessor height = LevelHeightAccessor.create(BenchmarkChunks.MIN_SECTION << 4, BenchmarkChunks.SECTION_COUNT << 4);
+        for (int i = 0; i < CHUNKS; ++i) {
+            final ProtoChunk chunk = new ProtoChunk(new ChunkPos(i, 0), UpgradeData.EMPTY, height, biomes, (BlendingData)null);
+            // fixed seeds, so every run measures the same terrain
+            final LevelChunkSection[] sections = BenchmarkChunks.generate(biomes, 0x5EED_1A7EL + i);
+            System.arraycopy(sections, 0, chunk.getSections(), 0, sections.length);
+            this.chunks[i] = chunk;
+        }
+    }
+
+    @Benchmark
+    public void light() {
+        for (final ProtoChunk chunk : this.chunks) {
+            this.engine.light(this.lightAccess, chunk, StarLightEngine.getEmptySectionsForChunk(chunk));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.papermc.paper.adventure;
+
+import com.mojang.serialization.JavaOps;
+import io.papermc.paper.benchmark.BenchmarkBootstrap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static net.kyori.adventure.key.Key.key;
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.Component.translatable;
+import static net.kyori.adventure.text.minimessage.MiniMessage.miniMessage;
+
+/**
+ * Compares converting components between adventure and Minecraft with the {@link DirectComponentConverter} against
+ * encoding with one codec and decoding with the other, and the cached conversion of a component converted before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentConversionBenchmark {
+
+    @Param({"text", "chat", "gradient"})
+    public String component;
+
+    private WrapperAwareSerializer serializer;
+    private WrapperAwareSerializer cachingSerializer;
+    private Component adventure;
+    private net.minecraft.network.chat.Component vanilla;
+
+    @Setup
+    public void setup() {
+        this.serializer = new WrapperAwareSerializer(() -> BenchmarkBootstrap.registryAccess().createSerializationContext(JavaOps.INSTANCE));
+        this.cachingSerializer = new WrapperAwareSerializer(() -> BenchmarkBootstrap.registryAccess().createSerializationContext(JavaOps.INSTANCE), true);
+        this.adventure = switch (this.component) {
+            // a sidebar line
+            case "text" -> text("Coins: ", NamedTextColor.GOLD).append(text(1250, NamedTextColor.WHITE));
+            // a chat message with a clickable, hoverable sender name
+            case "chat" -> translatable(
+                "chat.type.text",
+                text()
+                    .content("kashike")
+                    .clickEvent(ClickEvent.suggestCommand("/msg kashike "))
+                    .hoverEvent(HoverEvent.showEntity(key("minecraft", "player"), UUID.fromString("eb121687-8b1a-4944-bd4d-e0a818d9dfe2"), text("kashike")))
+                    .build(),
+                text("Hello, world.").decorate(TextDecoration.ITALIC)
+            );
+            // one child for every character
+            case "gradient" -> miniMessage().deserialize("<gradient:#5e4fa2:#f79459>Welcome to the server, enjoy your stay!</gradient>");
+            default -> throw new IllegalArgumentException(this.component);
+        };
+        this.vanilla = this.serializer.serializeWithCodecs(this.adventure);
+    }
+
+    @Benchmark
+    public net.minecraft.network.chat.Component toVanillaCodecs() {
+        return this.serializer.serializeWithCodecs(this.adventure);
+    }
+
+    @Benchmark
+    public net.minecraft.network.chat.Component toVanillaDirect() {
+        return this.serializer.serialize(this.adventure);
+    }
+
+    @Benchmark
+    public net.minecraft.network.chat.Component toVanillaCached() {
+        return this.cachingSerializer.serialize(this.adventure);
+    }
+
+    @Benchmark
+    public Component toAdventureCodecs() {
+        return this.serializer.deserializeWithCodecs(this.vanilla);
+    }
+
+    @Benchmark
+    public Component toAdventureDirect() {
+        return this.serializer.deserialize(this.vanilla);
+    }
+}
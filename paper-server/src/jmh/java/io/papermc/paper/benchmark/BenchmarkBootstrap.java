@@ -0,0 +1,68 @@
+package io.papermc.paper.benchmark;
+
+import java.util.List;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.LayeredRegistryAccess;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.RegistryDataLoader;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.server.RegistryLayer;
+import net.minecraft.server.packs.PackType;
+import net.minecraft.server.packs.repository.Pack;
+import net.minecraft.server.packs.repository.PackRepository;
+import net.minecraft.server.packs.repository.ServerPacksSource;
+import net.minecraft.server.packs.resources.MultiPackResourceManager;
+import net.minecraft.tags.TagLoader;
+import net.minecraft.world.flag.FeatureFlags;
+import net.minecraft.world.level.biome.Biome;
+
+/**
+ * Bootstraps the game for benchmarks, without a server or network access, the same way the unit tests do in
+ * {@code org.bukkit.support.RegistryHelper}. The worldgen registries are loaded from the vanilla data pack shipped in
+ * the server jar.
+ */
+public final class BenchmarkBootstrap {
+
+    private static RegistryAccess.Frozen registryAccess;
+
+    private BenchmarkBootstrap() {
+    }
+
+    /**
+     * Bootstraps the built-in registries, which includes every block and block state.
+     */
+    public static synchronized void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    /**
+     * Bootstraps the built-in registries and loads the worldgen registries of the vanilla data pack.
+     */
+    public static synchronized RegistryAccess.Frozen registryAccess() {
+        if (registryAccess == null) {
+            bootstrap();
+
+            final PackRepository packRepository = ServerPacksSource.createVanillaTrustedRepository();
+            packRepository.reload();
+            try (final MultiPackResourceManager resourceManager = new MultiPackResourceManager(
+                PackType.SERVER_DATA,
+                packRepository.getAvailablePacks().stream().filter(pack -> pack.getRequestedFeatures().isSubsetOf(FeatureFlags.VANILLA_SET)).map(Pack::open).toList()
+            )) {
+                final LayeredRegistryAccess<RegistryLayer> layers = RegistryLayer.createRegistryAccess();
+                final List<Registry.PendingTags<?>> tags = TagLoader.loadTagsForExistingRegistries(resourceManager, layers.getLayer(RegistryLayer.STATIC));
+                final List<HolderLookup.RegistryLookup<?>> lookups = TagLoader.buildUpdatedLookups(layers.getAccessForLoading(RegistryLayer.WORLDGEN), tags);
+                final RegistryAccess.Frozen worldgen = RegistryDataLoader.load(resourceManager, lookups, RegistryDataLoader.WORLDGEN_REGISTRIES);
+                registryAccess = layers.replaceFrom(RegistryLayer.WORLDGEN, worldgen).compositeAccess().freeze();
+            }
+        }
+        return registryAccess;
+    }
+
+    public static Registry<Biome> biomes() {
+        return registryAccess().lookupOrThrow(Registries.BIOME);
+    }
+}
@@ -0,0 +1,175 @@
+package io.papermc.paper.benchmark;
+
+import com.mojang.serialization.Codec;
+import java.util.List;
+import java.util.SplittableRandom;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.storage.SerializableChunkData;
+
+/**
+ * Generates chunk sections resembling generated overworld terrain from a seed, and converts them to and from NBT the
+ * way {@link SerializableChunkData} does, so chunk and region file benchmarks work on realistic data without a level.
+ */
+public final class BenchmarkChunks {
+
+    public static final int MIN_SECTION = -4;
+    public static final int SECTION_COUNT = 24;
+    private static final int SEA_LEVEL = 62;
+
+    private static final List<BlockState> ORES = List.of(
+        Blocks.COAL_ORE.defaultBlockState(), Blocks.IRON_ORE.defaultBlockState(), Blocks.COPPER_ORE.defaultBlockState(),
+        Blocks.GRANITE.defaultBlockState(), Blocks.DIORITE.defaultBlockState(), Blocks.ANDESITE.defaultBlockState(),
+        Blocks.GRAVEL.defaultBlockState(), Blocks.DIRT.defaultBlockState()
+    );
+    private static final List<BlockState> DEEP_ORES = List.of(
+        Blocks.DEEPSLATE_IRON_ORE.defaultBlockState(), Blocks.DEEPSLATE_GOLD_ORE.defaultBlockState(),
+        Blocks.DEEPSLATE_REDSTONE_ORE.defaultBlockState(), Blocks.DEEPSLATE_DIAMOND_ORE.defaultBlockState(),
+        Blocks.TUFF.defaultBlockState()
+    );
+    private static final List<BlockState> PLANTS = List.of(
+        Blocks.SHORT_GRASS.defaultBlockState(), Blocks.DANDELION.defaultBlockState(), Blocks.POPPY.defaultBlockState()
+    );
+    private static final List<ResourceKey<Biome>> BIOMES = List.of(
+        Biomes.PLAINS, Biomes.FOREST, Biomes.RIVER, Biomes.DRIPSTONE_CAVES, Biomes.LUSH_CAVES
+    );
+
+    private BenchmarkChunks() {
+    }
+
+    public static Codec<PalettedContainer<Holder<Biome>>> biomeCodec(final Registry<Biome> biomes) {
+        return PalettedContainer.codecRW(
+            biomes.asHolderIdMap(), biomes.holderByNameCodec(), PalettedContainer.Strategy.SECTION_BIOMES, biomes.getOrThrow(Biomes.PLAINS)
+        );
+    }
+
+    /**
+     * Generates the sections of a chunk, with rolling terrain around sea level, ores and plants.
+     */
+    public static LevelChunkSection[] generate(final Registry<Biome> biomes, final long seed) {
+        final SplittableRandom random = new SplittableRandom(seed);
+        final double phaseX = random.nextDouble() * Math.PI * 2.0;
+        final double phaseZ = random.nextDouble() * Math.PI * 2.0;
+        final int[] heights = new int[16 * 16];
+        for (int i = 0; i < heights.length; ++i) {
+            heights[i] = 64 + (int)(8.0 * Math.sin(phaseX + (i & 15) * 0.3) + 6.0 * Math.cos(phaseZ + (i >>> 4) * 0.25));
+        }
+
+        final LevelChunkSection[] sections = new LevelChunkSection[SECTION_COUNT];
+        for (int sectionIndex = 0; sectionIndex < SECTION_COUNT; ++sectionIndex) {
+            final int minY = (sectionIndex + MIN_SECTION) << 4;
+            final PalettedContainer<BlockState> states = new PalettedContainer<>(
+                Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES
+            );
+            final PalettedContainer<Holder<Biome>> sectionBiomes = new PalettedContainer<>(
+                biomes.asHolderIdMap(), biomes.getOrThrow(Biomes.PLAINS), PalettedContainer.Strategy.SECTION_BIOMES
+            );
+
+            for (int y = 0; y < 16; ++y) {
+                final int blockY = minY | y;
+                for (int z = 0; z < 16; ++z) {
+                    for (int x = 0; x < 16; ++x) {
+                        final BlockState state = getState(random, blockY, heights[x | (z << 4)]);
+                        if (!state.isAir()) {
+                            states.getAndSetUnchecked(x, y, z, state);
+                        }
+                    }
+                }
+            }
+            for (int y = 0; y < 4; ++y) {
+                for (int z = 0; z < 4; ++z) {
+                    for (int x = 0; x < 4; ++x) {
+                        final int biome = minY < 0 ? 3 + random.nextInt(2) : random.nextInt(3);
+                        sectionBiomes.getAndSetUnchecked(x, y, z, biomes.getOrThrow(BIOMES.get(biome)));
+                    }
+                }
+            }
+
+            sections[sectionIndex] = new LevelChunkSection(states, sectionBiomes);
+        }
+        return sections;
+    }
+
+    private static BlockState getState(final SplittableRandom random, final int y, final int height) {
+        if (y == -64) {
+            return Blocks.BEDROCK.defaultBlockState();
+        }
+        if (y < 0) {
+            return random.nextInt(40) == 0 ? DEEP_ORES.get(random.nextInt(DEEP_ORES.size())) : Blocks.DEEPSLATE.defaultBlockState();
+        }
+        if (y < height - 4) {
+            return random.nextInt(30) == 0 ? ORES.get(random.nextInt(ORES.size())) : Blocks.STONE.defaultBlockState();
+        }
+        if (y < height) {
+            return Blocks.DIRT.defaultBlockState();
+        }
+        if (y == height) {
+            return height < SEA_LEVEL ? Blocks.SAND.defaultBlockState() : Blocks.GRASS_BLOCK.defaultBlockState();
+        }
+        if (y <= SEA_LEVEL) {
+            return Blocks.WATER.defaultBlockState();
+        }
+        if (y == height + 1 && random.nextInt(8) == 0) {
+            return PLANTS.get(random.nextInt(PLANTS.size()));
+        }
+        return Blocks.AIR.defaultBlockState();
+    }
+
+    /**
+     * Writes the sections of a chunk to a chunk tag, in the format of {@link SerializableChunkData#write()}.
+     */
+    public static CompoundTag write(final ChunkPos pos, final LevelChunkSection[] sections, final Codec<PalettedContainer<Holder<Biome>>> biomeCodec) {
+        final CompoundTag tag = new CompoundTag();
+        tag.putInt("DataVersion", SharedConstants.getCurrentVersion().dataVersion().version());
+        tag.putInt("xPos", pos.x);
+        tag.putInt("yPos", MIN_SECTION);
+        tag.putInt("zPos", pos.z);
+        tag.putString("Status", "minecraft:full");
+        tag.putLong("LastUpdate", 0L);
+        tag.putLong("InhabitedTime", 0L);
+
+        final ListTag sectionTags = new ListTag();
+        for (int i = 0; i < sections.length; ++i) {
+            final LevelChunkSection section = sections[i];
+            final CompoundTag sectionTag = new CompoundTag();
+            sectionTag.putByte("Y", (byte)(i + MIN_SECTION));
+            sectionTag.store("block_states", SerializableChunkData.BLOCK_STATE_CODEC, section.getStates());
+            // sections always hold a read/write biome container
+            sectionTag.store("biomes", biomeCodec, (PalettedContainer<Holder<Biome>>)section.getBiomes());
+            sectionTags.add(sectionTag);
+        }
+        tag.put("sections", sectionTags);
+        return tag;
+    }
+
+    /**
+     * Reads the sections of a chunk tag written by {@link #write}, in the same way {@link SerializableChunkData#parse}
+     * reads them.
+     */
+    public static LevelChunkSection[] read(final CompoundTag tag, final Codec<PalettedContainer<Holder<Biome>>> biomeCodec) {
+        final LevelChunkSection[] sections = new LevelChunkSection[SECTION_COUNT];
+        final ListTag sectionTags = tag.getListOrEmpty("sections");
+        for (int i = 0; i < sectionTags.size(); ++i) {
+            final CompoundTag sectionTag = sectionTags.getCompoundOrEmpty(i);
+            final int index = sectionTag.getByteOr("Y", (byte)0) - MIN_SECTION;
+            final PalettedContainer<BlockState> states = sectionTag.read("block_states", SerializableChunkData.BLOCK_STATE_CODEC)
+                .orElseThrow(() -> new IllegalStateException("Missing block states in section " + index));
+            final PalettedContainer<Holder<Biome>> biomes = sectionTag.read("biomes", biomeCodec)
+                .orElseThrow(() -> new IllegalStateException("Missing biomes in section " + index));
+            sections[index] = new LevelChunkSection(states, biomes);
+        }
+        return sections;
+    }
+}
@@ -0,0 +1,84 @@
+package io.papermc.paper.benchmark;
+
+import ca.spottedleaf.moonrise.patches.block_counting.BlockCountingBitStorage;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.util.SimpleBitStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures reads and writes of a section sized {@link SimpleBitStorage}, and counting its entries with
+ * {@link BlockCountingBitStorage#moonrise$countEntries()} as done when recalculating the block counts of a section.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitStorageBenchmark {
+
+    private static final int SIZE = 16 * 16 * 16;
+
+    @Param({"1", "4", "5", "8", "15"})
+    public int bits;
+
+    private SimpleBitStorage storage;
+    private int[] values;
+
+    @Setup
+    public void setup() {
+        // fixed seed, so every run measures the same values
+        final SplittableRandom random = new SplittableRandom(0xB175L);
+        this.storage = new SimpleBitStorage(this.bits, SIZE);
+        this.values = new int[SIZE];
+        // palettes rarely use every id their bits allow, and the global palette never does
+        final int distinct = Math.min(1 << this.bits, 300);
+        for (int i = 0; i < SIZE; ++i) {
+            this.values[i] = random.nextInt(distinct);
+            this.storage.set(i, random.nextInt(distinct));
+        }
+    }
+
+    @Benchmark
+    public void get(final Blackhole blackhole) {
+        final SimpleBitStorage storage = this.storage;
+        for (int i = 0; i < SIZE; ++i) {
+            blackhole.consume(storage.get(i));
+        }
+    }
+
+    @Benchmark
+    public void set() {
+        final SimpleBitStorage storage = this.storage;
+        final int[] values = this.values;
+        for (int i = 0; i < SIZE; ++i) {
+            storage.set(i, values[i]);
+        }
+    }
+
+    @Benchmark
+    public void getAndSet(final Blackhole blackhole) {
+        final SimpleBitStorage storage = this.storage;
+        final int[] values = this.values;
+        for (int i = 0; i < SIZE; ++i) {
+            blackhole.consume(storage.getAndSet(i, values[i]));
+        }
+    }
+
+    @Benchmark
+    public Object countEntries() {
+        return ((BlockCountingBitStorage)this.storage).moonrise$countEntries();
+    }
+}
@@ -0,0 +1,63 @@
+package io.papermc.paper.benchmark;
+
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing the sections of a chunk packet: sized up front and written into the packet array, as the tick
+ * thread does, and written into a growing buffer and copied out, as the worker does for off-main serialization.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkPacketWriteBenchmark {
+
+    private LevelChunkSection[] sections;
+
+    @Setup
+    public void setup() {
+        // fixed seed, so every run measures the same chunk
+        this.sections = BenchmarkChunks.generate(BenchmarkBootstrap.biomes(), 0x5EC7105L);
+    }
+
+    @Benchmark
+    public byte[] writeSized() {
+        int size = 0;
+        for (final LevelChunkSection section : this.sections) {
+            size += section.getSerializedSize();
+        }
+        final byte[] data = new byte[size];
+        final FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.wrappedBuffer(data));
+        buffer.writerIndex(0);
+        for (int i = 0; i < this.sections.length; ++i) {
+            this.sections[i].write(buffer, null, i);
+        }
+        return data;
+    }
+
+    @Benchmark
+    public byte[] writeDeferred() {
+        final FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+        for (int i = 0; i < this.sections.length; ++i) {
+            this.sections[i].write(buffer, null, i);
+        }
+        final byte[] data = new byte[buffer.writerIndex()];
+        buffer.readBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,93 @@
+package io.papermc.paper.benchmark;
+
+import com.mojang.serialization.Codec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures converting the sections of a chunk to NBT and back, including the palette and bit storage encoding and the
+ * block counting done when a section is created, and the NBT to bytes step the chunk IO threads perform.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSerializationBenchmark {
+
+    private static final ChunkPos POS = new ChunkPos(0, 0);
+
+    private Codec<PalettedContainer<Holder<Biome>>> biomeCodec;
+    private LevelChunkSection[] sections;
+    private CompoundTag tag;
+    private byte[] bytes;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Setup
+    public void setup() throws IOException {
+        final Registry<Biome> biomes = BenchmarkBootstrap.biomes();
+        this.biomeCodec = BenchmarkChunks.biomeCodec(biomes);
+        // fixed seed, so every run measures the same chunk
+        this.sections = BenchmarkChunks.generate(biomes, 0x5EC7105L);
+        this.tag = BenchmarkChunks.write(POS, this.sections, this.biomeCodec);
+        this.bytes = this.toBytes(this.tag);
+    }
+
+    private byte[] toBytes(final CompoundTag tag) throws IOException {
+        this.output.reset();
+        try (final DataOutputStream out = new DataOutputStream(this.output)) {
+            NbtIo.write(tag, out);
+        }
+        return this.output.toByteArray();
+    }
+
+    @Benchmark
+    public CompoundTag writeSections() {
+        return BenchmarkChunks.write(POS, this.sections, this.biomeCodec);
+    }
+
+    @Benchmark
+    public LevelChunkSection[] readSections() {
+        return BenchmarkChunks.read(this.tag, this.biomeCodec);
+    }
+
+    @Benchmark
+    public byte[] writeNbt() throws IOException {
+        return this.toBytes(this.tag);
+    }
+
+    @Benchmark
+    public CompoundTag readNbt() throws IOException {
+        return NbtIo.read(new DataInputStream(new ByteArrayInputStream(this.bytes)), NbtAccounter.unlimitedHeap());
+    }
+
+    @Benchmark
+    public LevelChunkSection[] roundTrip() throws IOException {
+        final byte[] bytes = this.toBytes(BenchmarkChunks.write(POS, this.sections, this.biomeCodec));
+        return BenchmarkChunks.read(NbtIo.read(new DataInputStream(new ByteArrayInputStream(bytes)), NbtAccounter.unlimitedHeap()), this.biomeCodec);
+    }
+}
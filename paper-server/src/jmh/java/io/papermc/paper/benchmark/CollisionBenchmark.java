@@ -0,0 +1,163 @@
+package io.papermc.paper.benchmark;
+
+import ca.spottedleaf.moonrise.patches.collisions.CollisionUtil;
+import ca.spottedleaf.moonrise.patches.collisions.shape.CollisionVoxelShape;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import net.minecraft.world.phys.shapes.BooleanOp;
+import net.minecraft.world.phys.shapes.VoxelShape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link CollisionUtil} resolving entity movement against the collision shapes around it, and joining block
+ * shapes. The shapes are gathered up front and split into boxes and voxel shapes the same way
+ * {@link CollisionUtil#getCollisionsForBlocksOrWorldBorder} does, so only the collision resolution is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private static final int SIZE = 16;
+    private static final int MOVES = 256;
+
+    @Param({"flat", "stairs", "fences"})
+    public String terrain;
+
+    private BlockState[] blocks;
+    private final List<AABB> boxes = new ArrayList<>();
+    private final List<Vec3> moves = new ArrayList<>();
+    private final List<List<VoxelShape>> voxels = new ArrayList<>();
+    private final List<List<AABB>> aabbs = new ArrayList<>();
+    private final List<VoxelShape> shapes = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.bootstrap();
+
+        // fixed seed, so every run measures the same blocks and movement
+        final SplittableRandom random = new SplittableRandom(0xC0111DE5L);
+        final List<BlockState> decoration = switch (this.terrain) {
+            case "flat" -> List.of();
+            case "stairs" -> possibleStates(Blocks.OAK_STAIRS, Blocks.STONE_SLAB, Blocks.SNOW);
+            case "fences" -> possibleStates(Blocks.OAK_FENCE, Blocks.COBBLESTONE_WALL, Blocks.IRON_BARS);
+            default -> throw new IllegalArgumentException(this.terrain);
+        };
+
+        // a floor of full blocks with one layer of decoration on top
+        this.blocks = new BlockState[SIZE * 2 * SIZE];
+        for (int z = 0; z < SIZE; ++z) {
+            for (int x = 0; x < SIZE; ++x) {
+                this.blocks[index(x, 0, z)] = Blocks.STONE.defaultBlockState();
+                this.blocks[index(x, 1, z)] = decoration.isEmpty() || random.nextInt(3) == 0
+                    ? Blocks.AIR.defaultBlockState() : decoration.get(random.nextInt(decoration.size()));
+            }
+        }
+
+        for (int i = 0; i < MOVES; ++i) {
+            final double x = 2.0 + random.nextDouble() * (SIZE - 4);
+            final double z = 2.0 + random.nextDouble() * (SIZE - 4);
+            final double y = 1.0 + random.nextDouble() * 1.5;
+            final AABB box = new AABB(x - 0.3, y, z - 0.3, x + 0.3, y + 1.8, z + 0.3);
+            // walking or sprinting while falling
+            final Vec3 move = new Vec3((random.nextDouble() - 0.5) * 0.6, -0.0784 - random.nextDouble() * 0.5, (random.nextDouble() - 0.5) * 0.6);
+
+            final List<VoxelShape> voxels = new ArrayList<>();
+            final List<AABB> aabbs = new ArrayList<>();
+            this.collectShapes(box.expandTowards(move), voxels, aabbs);
+            this.boxes.add(box);
+            this.moves.add(move);
+            this.voxels.add(voxels);
+            this.aabbs.add(aabbs);
+        }
+
+        for (final BlockState state : decoration) {
+            final VoxelShape shape = state.getCollisionShape(EmptyBlockGetter.INSTANCE, BlockPos.ZERO);
+            if (!shape.isEmpty()) {
+                this.shapes.add(shape);
+            }
+        }
+        if (this.shapes.isEmpty()) {
+            this.shapes.add(Blocks.STONE.defaultBlockState().getCollisionShape(EmptyBlockGetter.INSTANCE, BlockPos.ZERO));
+        }
+    }
+
+    private static List<BlockState> possibleStates(final Block... blocks) {
+        final List<BlockState> ret = new ArrayList<>();
+        for (final Block block : blocks) {
+            ret.addAll(block.getStateDefinition().getPossibleStates());
+        }
+        return ret;
+    }
+
+    private static int index(final int x, final int y, final int z) {
+        return x | (z << 4) | (y << 8);
+    }
+
+    private void collectShapes(final AABB area, final List<VoxelShape> voxels, final List<AABB> aabbs) {
+        final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int y = 0; y < 2; ++y) {
+            for (int z = 0; z < SIZE; ++z) {
+                for (int x = 0; x < SIZE; ++x) {
+                    final VoxelShape shape = this.blocks[index(x, y, z)].getCollisionShape(EmptyBlockGetter.INSTANCE, pos.set(x, y, z));
+                    if (shape.isEmpty()) {
+                        continue;
+                    }
+                    final AABB single = ((CollisionVoxelShape)shape).moonrise$getSingleAABBRepresentation();
+                    if (single != null) {
+                        final AABB moved = single.move(x, y, z);
+                        if (CollisionUtil.voxelShapeIntersect(area, moved)) {
+                            aabbs.add(moved);
+                        }
+                        continue;
+                    }
+                    final VoxelShape moved = shape.move(x, y, z);
+                    if (CollisionUtil.voxelShapeIntersectNoEmpty(moved, area)) {
+                        voxels.add(moved);
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void performCollisions(final Blackhole blackhole) {
+        for (int i = 0; i < MOVES; ++i) {
+            blackhole.consume(CollisionUtil.performCollisions(this.moves.get(i), this.boxes.get(i), this.voxels.get(i), this.aabbs.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void joinShapes(final Blackhole blackhole) {
+        final List<VoxelShape> shapes = this.shapes;
+        for (int i = 0, len = shapes.size(); i < len; ++i) {
+            final VoxelShape first = shapes.get(i);
+            final VoxelShape second = shapes.get((i * 31 + 7) % len);
+            blackhole.consume(CollisionUtil.joinOptimized(first, second, BooleanOp.OR));
+            blackhole.consume(CollisionUtil.isJoinNonEmpty(first, second, BooleanOp.AND));
+        }
+    }
+}
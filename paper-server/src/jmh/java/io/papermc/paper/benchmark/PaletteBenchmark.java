@@ -0,0 +1,110 @@
+package io.papermc.paper.benchmark;
+
+import ca.spottedleaf.moonrise.patches.fast_palette.FastPalette;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures reads and writes of a block state {@link PalettedContainer}, whose reads go through the raw palette array
+ * of {@link FastPalette}. The number of distinct states selects the palette: single value, linear, hash map or global.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaletteBenchmark {
+
+    private static final int SECTION_SIZE = 16 * 16 * 16;
+
+    @Param({"1", "12", "200", "1000"})
+    public int distinctStates;
+
+    private BlockState initial;
+    private PalettedContainer<BlockState> container;
+    private BlockState[] writes;
+    private int[] indices;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.bootstrap();
+
+        // fixed seed, so every run measures the same palette and accesses
+        final SplittableRandom random = new SplittableRandom(0x9A1E77EL);
+        final BlockState[] states = new BlockState[this.distinctStates];
+        for (int i = 0; i < states.length; ++i) {
+            states[i] = Block.BLOCK_STATE_REGISTRY.byId(1 + i * 7);
+        }
+
+        // start out with one of the states, so a single state keeps the single value palette
+        this.initial = states[0];
+        this.container = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, this.initial, PalettedContainer.Strategy.SECTION_STATES);
+        for (int i = 0; i < SECTION_SIZE; ++i) {
+            // every state at least once, so the palette has its final size before measuring
+            this.container.getAndSetUnchecked(i & 15, i >>> 8, (i >>> 4) & 15, states[i < states.length ? i : random.nextInt(states.length)]);
+        }
+
+        this.writes = new BlockState[SECTION_SIZE];
+        this.indices = new int[SECTION_SIZE];
+        for (int i = 0; i < SECTION_SIZE; ++i) {
+            this.writes[i] = states[random.nextInt(states.length)];
+            this.indices[i] = random.nextInt(SECTION_SIZE);
+        }
+    }
+
+    @Benchmark
+    public void readSequential(final Blackhole blackhole) {
+        final PalettedContainer<BlockState> container = this.container;
+        for (int i = 0; i < SECTION_SIZE; ++i) {
+            blackhole.consume(container.get(i));
+        }
+    }
+
+    @Benchmark
+    public void readRandom(final Blackhole blackhole) {
+        final PalettedContainer<BlockState> container = this.container;
+        for (final int index : this.indices) {
+            blackhole.consume(container.get(index));
+        }
+    }
+
+    @Benchmark
+    public void write(final Blackhole blackhole) {
+        final PalettedContainer<BlockState> container = this.container;
+        final BlockState[] writes = this.writes;
+        final int[] indices = this.indices;
+        for (int i = 0; i < SECTION_SIZE; ++i) {
+            final int index = indices[i];
+            blackhole.consume(container.getAndSetUnchecked(index & 15, index >>> 8, (index >>> 4) & 15, writes[i]));
+        }
+    }
+
+    @Benchmark
+    public PalettedContainer<BlockState> fill() {
+        // grows the palette from a single value to its final size
+        final PalettedContainer<BlockState> container = new PalettedContainer<>(
+            Block.BLOCK_STATE_REGISTRY, this.initial, PalettedContainer.Strategy.SECTION_STATES
+        );
+        final BlockState[] writes = this.writes;
+        for (int i = 0; i < SECTION_SIZE; ++i) {
+            container.getAndSetUnchecked(i & 15, i >>> 8, (i >>> 4) & 15, writes[i]);
+        }
+        return container;
+    }
+}
@@ -0,0 +1,117 @@
+package io.papermc.paper.benchmark;
+
+import ca.spottedleaf.moonrise.patches.chunk_system.io.MoonriseRegionFileIO;
+import ca.spottedleaf.moonrise.patches.chunk_system.storage.ChunkSystemRegionFile;
+import com.mojang.serialization.Codec;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.storage.RegionFile;
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
+import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures writing and reading chunks to and from a region file in a temporary directory, in the two steps
+ * {@link MoonriseRegionFileIO} uses: compressing the chunk into a buffer with
+ * {@link ChunkSystemRegionFile#moonrise$startWrite}, then writing the buffer to the file. The region file is used
+ * directly, as the region file storage needs the server configuration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegionFileBenchmark {
+
+    private static final int CHUNKS = 64;
+
+    @Param({"zlib", "lz4", "none"})
+    public String compression;
+
+    private Path directory;
+    private RegionFile regionFile;
+    private final ChunkPos[] positions = new ChunkPos[CHUNKS];
+    private final CompoundTag[] chunks = new CompoundTag[CHUNKS];
+
+    @Setup
+    public void setup() throws IOException {
+        final Registry<Biome> biomes = BenchmarkBootstrap.biomes();
+        final Codec<PalettedContainer<Holder<Biome>>> biomeCodec = BenchmarkChunks.biomeCodec(biomes);
+        for (int i = 0; i < CHUNKS; ++i) {
+            this.positions[i] = new ChunkPos(i & 7, i >>> 3);
+            // fixed seeds, so every run writes the same chunks
+            this.chunks[i] = BenchmarkChunks.write(this.positions[i], BenchmarkChunks.generate(biomes, i), biomeCodec);
+        }
+
+        final RegionFileVersion version = switch (this.compression) {
+            case "zlib" -> RegionFileVersion.VERSION_DEFLATE;
+            case "lz4" -> RegionFileVersion.VERSION_LZ4;
+            case "none" -> RegionFileVersion.VERSION_NONE;
+            default -> throw new IllegalArgumentException(this.compression);
+        };
+        this.directory = Files.createTempDirectory("paper-region-benchmark");
+        this.regionFile = new RegionFile(
+            new RegionStorageInfo("benchmark", Level.OVERWORLD, "chunk"), this.directory.resolve("r.0.0.mca"), this.directory, version, false
+        );
+        // so reads find every chunk
+        this.write();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.regionFile.close();
+        try (final Stream<Path> files = Files.walk(this.directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        for (int i = 0; i < CHUNKS; ++i) {
+            final MoonriseRegionFileIO.RegionDataController.WriteData writeData = ((ChunkSystemRegionFile)this.regionFile).moonrise$startWrite(this.chunks[i], this.positions[i]);
+            try {
+                NbtIo.write(this.chunks[i], writeData.output());
+            } finally {
+                writeData.output().close();
+            }
+            writeData.write().run(this.regionFile);
+        }
+    }
+
+    @Benchmark
+    public void read(final Blackhole blackhole) throws IOException {
+        for (int i = 0; i < CHUNKS; ++i) {
+            try (final DataInputStream input = this.regionFile.getChunkDataInputStream(this.positions[i])) {
+                blackhole.consume(NbtIo.read(input));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.papermc.paper.benchmark;
+
+import ca.spottedleaf.moonrise.patches.blockstate_propertyaccess.util.ZeroCollidingReferenceStateTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.BlockStateProperties;
+import net.minecraft.world.level.block.state.properties.Property;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures block state property access, which goes through {@link ZeroCollidingReferenceStateTable}, on blocks with
+ * many properties and states.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateTableBenchmark {
+
+    private static final int ACCESSES = 4096;
+
+    private BlockState[] states;
+    private Change<?>[] changes;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.bootstrap();
+
+        // fixed seed, so every run measures the same accesses
+        final SplittableRandom random = new SplittableRandom(0x57A7EL);
+        final Block[] blocks = {
+            Blocks.OAK_STAIRS, Blocks.REDSTONE_WIRE, Blocks.NOTE_BLOCK, Blocks.OAK_FENCE,
+            Blocks.COBBLESTONE_WALL, Blocks.REPEATER, Blocks.OAK_DOOR, Blocks.TRIPWIRE
+        };
+        this.states = new BlockState[ACCESSES];
+        this.changes = new Change<?>[ACCESSES];
+        for (int i = 0; i < ACCESSES; ++i) {
+            final List<BlockState> possible = blocks[random.nextInt(blocks.length)].getStateDefinition().getPossibleStates();
+            final BlockState state = possible.get(random.nextInt(possible.size()));
+            final List<Property<?>> properties = new ArrayList<>(state.getProperties());
+            this.states[i] = state;
+            this.changes[i] = randomChange(properties.get(random.nextInt(properties.size())), random);
+        }
+    }
+
+    private static <T extends Comparable<T>> Change<T> randomChange(final Property<T> property, final SplittableRandom random) {
+        final List<T> values = property.getPossibleValues();
+        return new Change<>(property, values.get(random.nextInt(values.size())));
+    }
+
+    @Benchmark
+    public void getValue(final Blackhole blackhole) {
+        final BlockState[] states = this.states;
+        final Change<?>[] changes = this.changes;
+        for (int i = 0; i < ACCESSES; ++i) {
+            blackhole.consume(states[i].getValue(changes[i].property()));
+        }
+    }
+
+    @Benchmark
+    public void getOptionalValue(final Blackhole blackhole) {
+        // waterlogged is missing from most of the blocks
+        final BlockState[] states = this.states;
+        for (int i = 0; i < ACCESSES; ++i) {
+            blackhole.consume(states[i].getOptionalValue(BlockStateProperties.WATERLOGGED));
+        }
+    }
+
+    @Benchmark
+    public void setValue(final Blackhole blackhole) {
+        final BlockState[] states = this.states;
+        final Change<?>[] changes = this.changes;
+        for (int i = 0; i < ACCESSES; ++i) {
+            blackhole.consume(changes[i].apply(states[i]));
+        }
+    }
+
+    private record Change<T extends Comparable<T>>(Property<T> property, T value) {
+
+        BlockState apply(final BlockState state) {
+            return state.setValue(this.property, this.value);
+        }
+    }
+}
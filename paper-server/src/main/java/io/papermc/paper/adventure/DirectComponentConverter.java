@@ -0,0 +1,382 @@
+package io.papermc.paper.adventure;
+
+import com.mojang.datafixers.util.Either;
+import com.mojang.serialization.JavaOps;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.KeybindComponent;
+import net.kyori.adventure.text.ScoreComponent;
+import net.kyori.adventure.text.SelectorComponent;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.TranslationArgument;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.ShadowColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.minecraft.Util;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.chat.ComponentContents;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.contents.KeybindContents;
+import net.minecraft.network.chat.contents.PlainTextContents;
+import net.minecraft.network.chat.contents.ScoreContents;
+import net.minecraft.network.chat.contents.SelectorContents;
+import net.minecraft.network.chat.contents.TranslatableContents;
+import net.minecraft.network.chat.contents.selector.SelectorPattern;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.ExtraCodecs;
+import net.minecraft.world.entity.EntityType;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Converts between adventure and Minecraft components by walking the component tree, giving the same result as
+ * encoding with one codec and decoding with the other. Anything which needs registry access or is not known here,
+ * like NBT components, item hover events and dialog click events, as well as values the codecs would reject, is
+ * converted with the codecs of the {@link WrapperAwareSerializer}.
+ */
+final class DirectComponentConverter {
+
+    private static final Map<NamedTextColor, net.minecraft.network.chat.TextColor> NAMED_COLORS = new IdentityHashMap<>();
+
+    static {
+        for (final NamedTextColor color : NamedTextColor.NAMES.values()) {
+            NAMED_COLORS.put(color, net.minecraft.network.chat.TextColor.parseColor(NamedTextColor.NAMES.keyOrThrow(color)).getOrThrow());
+        }
+    }
+
+    private final WrapperAwareSerializer codecs;
+
+    DirectComponentConverter(final WrapperAwareSerializer codecs) {
+        this.codecs = codecs;
+    }
+
+    // adventure -> vanilla
+
+    net.minecraft.network.chat.Component toVanilla(final Component component) {
+        final @Nullable ComponentContents contents;
+        if (component instanceof final TextComponent text) {
+            contents = PlainTextContents.create(text.content());
+        } else if (component instanceof final TranslatableComponent translatable) {
+            contents = this.toVanilla(translatable);
+        } else if (component instanceof final KeybindComponent keybind) {
+            contents = new KeybindContents(keybind.keybind());
+        } else if (component instanceof final ScoreComponent score) {
+            contents = new ScoreContents(
+                SelectorPattern.parse(score.name()).<Either<SelectorPattern, String>>map(Either::left).result().orElse(Either.right(score.name())),
+                score.objective()
+            );
+        } else if (component instanceof final SelectorComponent selector) {
+            contents = this.toVanilla(selector);
+        } else {
+            contents = null;
+        }
+        final net.minecraft.network.chat.@Nullable Style style = contents == null ? null : this.toVanilla(component.style());
+        if (style == null) {
+            // nbt components and anything the codecs would reject
+            return this.codecs.serializeWithCodecs(component);
+        }
+
+        final MutableComponent result = MutableComponent.create(contents).setStyle(style);
+        for (final Component child : component.children()) {
+            result.append(this.toVanilla(child));
+        }
+        return result;
+    }
+
+    private ComponentContents toVanilla(final TranslatableComponent translatable) {
+        final List<TranslationArgument> arguments = translatable.arguments();
+        final Object[] args = new Object[arguments.size()];
+        for (int i = 0; i < args.length; ++i) {
+            final Object value = arguments.get(i).value();
+            if (value instanceof Number || value instanceof Boolean) {
+                args[i] = value;
+                continue;
+            }
+            final Component component = arguments.get(i).asComponent();
+            final @Nullable String collapsed = AdventureCodecs.tryCollapseToString(component);
+            args[i] = collapsed != null ? collapsed : this.toVanilla(component);
+        }
+        return new TranslatableContents(translatable.key(), translatable.fallback(), args);
+    }
+
+    private @Nullable ComponentContents toVanilla(final SelectorComponent selector) {
+        final Optional<SelectorPattern> pattern = SelectorPattern.parse(selector.pattern()).result();
+        if (pattern.isEmpty()) {
+            return null;
+        }
+        final @Nullable Component separator = selector.separator();
+        return new SelectorContents(pattern.get(), separator == null ? Optional.empty() : Optional.of(this.toVanilla(separator)));
+    }
+
+    /**
+     * @return the style, or {@code null} if it has to be converted with the codecs
+     */
+    net.minecraft.network.chat.@Nullable Style toVanilla(final Style style) {
+        if (style.isEmpty()) {
+            return net.minecraft.network.chat.Style.EMPTY;
+        }
+        net.minecraft.network.chat.Style result = net.minecraft.network.chat.Style.EMPTY
+            .withBold(toVanilla(style.decoration(TextDecoration.BOLD)))
+            .withItalic(toVanilla(style.decoration(TextDecoration.ITALIC)))
+            .withUnderlined(toVanilla(style.decoration(TextDecoration.UNDERLINED)))
+            .withStrikethrough(toVanilla(style.decoration(TextDecoration.STRIKETHROUGH)))
+            .withObfuscated(toVanilla(style.decoration(TextDecoration.OBFUSCATED)))
+            .withInsertion(style.insertion());
+        final @Nullable TextColor color = style.color();
+        if (color != null) {
+            result = result.withColor(color instanceof final NamedTextColor named ? NAMED_COLORS.get(named) : net.minecraft.network.chat.TextColor.fromRgb(color.value()));
+        }
+        final @Nullable ShadowColor shadowColor = style.shadowColor();
+        if (shadowColor != null) {
+            result = result.withShadowColor(shadowColor.value());
+        }
+        final @Nullable Key font = style.font();
+        if (font != null) {
+            result = result.withFont(PaperAdventure.asVanilla(font));
+        }
+        final @Nullable ClickEvent clickEvent = style.clickEvent();
+        if (clickEvent != null) {
+            final net.minecraft.network.chat.@Nullable ClickEvent converted = toVanilla(clickEvent);
+            if (converted == null) {
+                return null;
+            }
+            result = result.withClickEvent(converted);
+        }
+        final @Nullable HoverEvent<?> hoverEvent = style.hoverEvent();
+        if (hoverEvent != null) {
+            final net.minecraft.network.chat.@Nullable HoverEvent converted = this.toVanilla(hoverEvent);
+            if (converted == null) {
+                return null;
+            }
+            result = result.withHoverEvent(converted);
+        }
+        return result;
+    }
+
+    private static @Nullable Boolean toVanilla(final TextDecoration.State state) {
+        return switch (state) {
+            case NOT_SET -> null;
+            case FALSE -> Boolean.FALSE;
+            case TRUE -> Boolean.TRUE;
+        };
+    }
+
+    private static net.minecraft.network.chat.@Nullable ClickEvent toVanilla(final ClickEvent event) {
+        return switch (event.action()) {
+            case OPEN_URL -> {
+                final String url = ((ClickEvent.Payload.Text) event.payload()).value();
+                final @Nullable URI uri = parseUntrustedUri(!url.contains("://") ? "https://" + url : url);
+                yield uri == null ? null : new net.minecraft.network.chat.ClickEvent.OpenUrl(uri);
+            }
+            case RUN_COMMAND -> {
+                final String command = ((ClickEvent.Payload.Text) event.payload()).value();
+                yield isChatString(command) ? new net.minecraft.network.chat.ClickEvent.RunCommand(command) : null;
+            }
+            case SUGGEST_COMMAND -> {
+                final String command = ((ClickEvent.Payload.Text) event.payload()).value();
+                yield isChatString(command) ? new net.minecraft.network.chat.ClickEvent.SuggestCommand(command) : null;
+            }
+            case CHANGE_PAGE -> {
+                final int page = ((ClickEvent.Payload.Int) event.payload()).integer();
+                yield page > 0 ? new net.minecraft.network.chat.ClickEvent.ChangePage(page) : null;
+            }
+            case COPY_TO_CLIPBOARD -> new net.minecraft.network.chat.ClickEvent.CopyToClipboard(((ClickEvent.Payload.Text) event.payload()).value());
+            // open_file is never allowed to be encoded, show_dialog and custom need registry access
+            default -> null;
+        };
+    }
+
+    private net.minecraft.network.chat.@Nullable HoverEvent toVanilla(final HoverEvent<?> event) {
+        if (event.action() == HoverEvent.Action.SHOW_TEXT) {
+            return new net.minecraft.network.chat.HoverEvent.ShowText(this.toVanilla((Component) event.value()));
+        } else if (event.action() == HoverEvent.Action.SHOW_ENTITY) {
+            final HoverEvent.ShowEntity entity = (HoverEvent.ShowEntity) event.value();
+            final Optional<EntityType<?>> type = BuiltInRegistries.ENTITY_TYPE.get(PaperAdventure.asVanilla(entity.type())).map(Holder::value);
+            if (type.isEmpty()) {
+                return null;
+            }
+            final @Nullable Component name = entity.name();
+            return new net.minecraft.network.chat.HoverEvent.ShowEntity(new net.minecraft.network.chat.HoverEvent.EntityTooltipInfo(
+                type.get(), entity.id(), name == null ? Optional.empty() : Optional.of(this.toVanilla(name))
+            ));
+        }
+        // show_item needs the data component codecs
+        return null;
+    }
+
+    // vanilla -> adventure
+
+    Component toAdventure(final net.minecraft.network.chat.Component component) {
+        if (component instanceof final AdventureComponent adventure) {
+            return adventure.adventure;
+        }
+        final ComponentContents contents = component.getContents();
+        @Nullable Component result;
+        if (contents instanceof final PlainTextContents text) {
+            result = Component.text(text.text());
+        } else if (contents instanceof final TranslatableContents translatable) {
+            result = this.toAdventure(translatable);
+        } else if (contents instanceof final KeybindContents keybind) {
+            result = Component.keybind(keybind.getName());
+        } else if (contents instanceof final ScoreContents score) {
+            result = Component.score(score.name().map(SelectorPattern::pattern, Function.identity()), score.objective());
+        } else if (contents instanceof final SelectorContents selector) {
+            result = Component.selector(selector.selector().pattern(), selector.separator().map(this::toAdventure).orElse(null));
+        } else {
+            result = null;
+        }
+        final @Nullable Style style = result == null ? null : this.toAdventure(component.getStyle());
+        if (style == null) {
+            // nbt components and anything the codecs would reject
+            return this.codecs.deserializeWithCodecs(component);
+        }
+
+        result = result.style(style);
+        final List<net.minecraft.network.chat.Component> siblings = component.getSiblings();
+        if (!siblings.isEmpty()) {
+            final List<Component> children = new ArrayList<>(siblings.size());
+            for (final net.minecraft.network.chat.Component sibling : siblings) {
+                children.add(this.toAdventure(sibling));
+            }
+            result = result.children(children);
+        }
+        return result;
+    }
+
+    private @Nullable Component toAdventure(final TranslatableContents translatable) {
+        final Object[] args = translatable.getArgs();
+        final List<TranslationArgument> arguments = args.length == 0 ? Collections.emptyList() : new ArrayList<>(args.length);
+        for (final Object arg : args) {
+            if (arg instanceof final net.minecraft.network.chat.Component component) {
+                arguments.add(TranslationArgument.component(this.toAdventure(component)));
+            } else if (arg instanceof final String string) {
+                arguments.add(TranslationArgument.component(Component.text(string)));
+            } else if (arg instanceof final Boolean bool) {
+                arguments.add(TranslationArgument.bool(bool));
+            } else if (arg instanceof final Number number) {
+                arguments.add(TranslationArgument.numeric(number));
+            } else {
+                return null;
+            }
+        }
+        return Component.translatable(translatable.getKey(), arguments).fallback(translatable.getFallback());
+    }
+
+    /**
+     * @return the style, or {@code null} if it has to be converted with the codecs
+     */
+    @Nullable Style toAdventure(final net.minecraft.network.chat.Style style) {
+        if (style.isEmpty()) {
+            return Style.empty();
+        }
+        final Style.Builder builder = Style.style();
+        final net.minecraft.network.chat.@Nullable TextColor color = style.getColor();
+        if (color != null) {
+            if (color.name != null) {
+                final @Nullable NamedTextColor named = NamedTextColor.NAMES.value(color.name);
+                if (named == null) {
+                    return null;
+                }
+                builder.color(named);
+            } else {
+                builder.color(TextColor.color(color.getValue()));
+            }
+        }
+        final @Nullable Integer shadowColor = style.getShadowColor();
+        if (shadowColor != null) {
+            builder.shadowColor(ShadowColor.shadowColor(shadowColor));
+        }
+        setDecoration(builder, TextDecoration.BOLD, style.bold);
+        setDecoration(builder, TextDecoration.ITALIC, style.italic);
+        setDecoration(builder, TextDecoration.UNDERLINED, style.underlined);
+        setDecoration(builder, TextDecoration.STRIKETHROUGH, style.strikethrough);
+        setDecoration(builder, TextDecoration.OBFUSCATED, style.obfuscated);
+        final net.minecraft.network.chat.@Nullable ClickEvent clickEvent = style.getClickEvent();
+        if (clickEvent != null) {
+            final @Nullable ClickEvent converted = toAdventure(clickEvent);
+            if (converted == null) {
+                return null;
+            }
+            builder.clickEvent(converted);
+        }
+        final net.minecraft.network.chat.@Nullable HoverEvent hoverEvent = style.getHoverEvent();
+        if (hoverEvent != null) {
+            final @Nullable HoverEvent<?> converted = this.toAdventure(hoverEvent);
+            if (converted == null) {
+                return null;
+            }
+            builder.hoverEvent(converted);
+        }
+        builder.insertion(style.getInsertion());
+        if (style.font != null) {
+            builder.font(PaperAdventure.asAdventure(style.font));
+        }
+        return builder.build();
+    }
+
+    private static void setDecoration(final Style.Builder builder, final TextDecoration decoration, final @Nullable Boolean value) {
+        if (value != null) {
+            builder.decoration(decoration, value);
+        }
+    }
+
+    private static @Nullable ClickEvent toAdventure(final net.minecraft.network.chat.ClickEvent event) {
+        return switch (event) {
+            case final net.minecraft.network.chat.ClickEvent.OpenUrl openUrl -> {
+                final @Nullable URI uri = parseUntrustedUri(openUrl.uri().toString());
+                yield uri == null ? null : ClickEvent.openUrl(uri.toString());
+            }
+            case final net.minecraft.network.chat.ClickEvent.RunCommand runCommand ->
+                isChatString(runCommand.command()) ? ClickEvent.runCommand(runCommand.command()) : null;
+            case final net.minecraft.network.chat.ClickEvent.SuggestCommand suggestCommand ->
+                isChatString(suggestCommand.command()) ? ClickEvent.suggestCommand(suggestCommand.command()) : null;
+            case final net.minecraft.network.chat.ClickEvent.ChangePage changePage ->
+                changePage.page() > 0 ? ClickEvent.changePage(changePage.page()) : null;
+            case final net.minecraft.network.chat.ClickEvent.CopyToClipboard copyToClipboard -> ClickEvent.copyToClipboard(copyToClipboard.value());
+            default -> null;
+        };
+    }
+
+    private @Nullable HoverEvent<?> toAdventure(final net.minecraft.network.chat.HoverEvent event) {
+        if (event instanceof final net.minecraft.network.chat.HoverEvent.ShowText showText) {
+            return HoverEvent.showText(this.toAdventure(showText.value()));
+        } else if (event instanceof final net.minecraft.network.chat.HoverEvent.ShowEntity showEntity) {
+            final net.minecraft.network.chat.HoverEvent.EntityTooltipInfo entity = showEntity.entity();
+            final Optional<ResourceLocation> type = BuiltInRegistries.ENTITY_TYPE.getResourceKey(entity.type).map(ResourceKey::location);
+            if (type.isEmpty()) {
+                return null;
+            }
+            return HoverEvent.showEntity(PaperAdventure.asAdventure(type.get()), entity.uuid, entity.name.map(this::toAdventure).orElse(null));
+        }
+        return null;
+    }
+
+    // the same checks the codecs apply
+
+    private static @Nullable URI parseUntrustedUri(final String uri) {
+        try {
+            return Util.parseAndValidateUntrustedUri(uri);
+        } catch (final URISyntaxException ignored) {
+            return null;
+        }
+    }
+
+    private static boolean isChatString(final String string) {
+        return ExtraCodecs.CHAT_STRING.parse(JavaOps.INSTANCE, string).isSuccess();
+    }
+}
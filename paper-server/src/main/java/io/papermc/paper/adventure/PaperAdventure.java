@@ -29,7 +29,6 @@ import net.kyori.adventure.text.event.DataComponentValueConverterRegistry;
 import net.kyori.adventure.text.flattener.ComponentFlattener;
 import net.kyori.adventure.text.format.Style;
 import net.kyori.adventure.text.format.TextColor;
-import net.kyori.adventure.text.serializer.ComponentSerializer;
 import net.kyori.adventure.text.serializer.ansi.ANSIComponentSerializer;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.adventure.text.serializer.plain.PlainComponentSerializer;
@@ -52,7 +51,6 @@ import net.minecraft.network.chat.ComponentUtils;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundSoundEntityPacket;
 import net.minecraft.network.protocol.game.ClientboundSoundPacket;
-import net.minecraft.resources.RegistryOps;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.network.Filterable;
@@ -140,7 +138,8 @@ public final class PaperAdventure {
             return decoded.toString();
         }
     };
-    public static final ComponentSerializer<Component, Component, net.minecraft.network.chat.Component> WRAPPER_AWARE_SERIALIZER = new WrapperAwareSerializer(() -> CraftRegistry.getMinecraftRegistry().createSerializationContext(JavaOps.INSTANCE));
+    // results are only used by AdventureComponent, which never modifies them, so they can be shared
+    public static final WrapperAwareSerializer WRAPPER_AWARE_SERIALIZER = new WrapperAwareSerializer(() -> CraftRegistry.getMinecraftRegistry().createSerializationContext(JavaOps.INSTANCE), true);
 
     private PaperAdventure() {
     }
@@ -487,20 +486,10 @@ public final class PaperAdventure {
     // Style
 
     public static net.minecraft.network.chat.Style asVanilla(final Style style) {
-        final RegistryOps<Object> ops = CraftRegistry.getMinecraftRegistry().createSerializationContext(JavaOps.INSTANCE);
-        final Object encoded = AdventureCodecs.STYLE_MAP_CODEC.codec()
-            .encodeStart(ops, style).getOrThrow(IllegalStateException::new);
-
-        return net.minecraft.network.chat.Style.Serializer.CODEC
-            .parse(ops, encoded).getOrThrow(IllegalStateException::new);
+        return WRAPPER_AWARE_SERIALIZER.serializeStyle(style);
     }
 
     public static Style asAdventure(final net.minecraft.network.chat.Style style) {
-        final RegistryOps<Object> ops = CraftRegistry.getMinecraftRegistry().createSerializationContext(JavaOps.INSTANCE);
-        final Object encoded = net.minecraft.network.chat.Style.Serializer.CODEC
-            .encodeStart(ops, style).getOrThrow(IllegalStateException::new);
-
-        return AdventureCodecs.STYLE_MAP_CODEC.codec()
-            .parse(ops, encoded).getOrThrow(IllegalStateException::new);
+        return WRAPPER_AWARE_SERIALIZER.deserializeStyle(style);
     }
 }
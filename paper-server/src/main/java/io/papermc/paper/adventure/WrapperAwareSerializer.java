@@ -2,24 +2,72 @@ package io.papermc.paper.adventure;
 
 import com.google.common.base.Suppliers;
 import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Codec;
 import com.mojang.serialization.JavaOps;
 import java.util.function.Supplier;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.Style;
 import net.kyori.adventure.text.serializer.ComponentSerializer;
 import net.minecraft.network.chat.ComponentSerialization;
 import net.minecraft.resources.RegistryOps;
 import org.bukkit.craftbukkit.CraftRegistry;
+import org.jspecify.annotations.Nullable;
 
 public final class WrapperAwareSerializer implements ComponentSerializer<Component, Component, net.minecraft.network.chat.Component> {
 
+    // must be a power of two
+    private static final int CACHE_SIZE = 256;
+
     private final Supplier<RegistryOps<Object>> javaOps;
+    private final DirectComponentConverter converter = new DirectComponentConverter(this);
+    private final CachedConversion @Nullable [] cache;
 
     public WrapperAwareSerializer(final Supplier<RegistryOps<Object>> javaOps) {
+        this(javaOps, false);
+    }
+
+    /**
+     * @param cacheResults whether converting the same adventure component instance again may return the same
+     *                     Minecraft component, which is only safe if the returned components are never modified
+     */
+    public WrapperAwareSerializer(final Supplier<RegistryOps<Object>> javaOps, final boolean cacheResults) {
         this.javaOps = Suppliers.memoize(javaOps::get);
+        this.cache = cacheResults ? new CachedConversion[CACHE_SIZE] : null;
     }
 
     @Override
     public Component deserialize(final net.minecraft.network.chat.Component input) {
+        return this.converter.toAdventure(input);
+    }
+
+    @Override
+    public net.minecraft.network.chat.Component serialize(final Component component) {
+        final CachedConversion @Nullable [] cache = this.cache;
+        if (cache == null) {
+            return this.converter.toVanilla(component);
+        }
+        // adventure components are immutable, so a component converted before gives the same result again
+        final int slot = System.identityHashCode(component) & (CACHE_SIZE - 1);
+        final @Nullable CachedConversion cached = cache[slot];
+        if (cached != null && cached.adventure == component) {
+            return cached.vanilla;
+        }
+        final net.minecraft.network.chat.Component converted = this.converter.toVanilla(component);
+        cache[slot] = new CachedConversion(component, converted);
+        return converted;
+    }
+
+    public net.minecraft.network.chat.Style serializeStyle(final Style style) {
+        final net.minecraft.network.chat.@Nullable Style converted = this.converter.toVanilla(style);
+        return converted != null ? converted : this.convertWithCodecs(style, AdventureCodecs.STYLE_MAP_CODEC.codec(), net.minecraft.network.chat.Style.Serializer.CODEC);
+    }
+
+    public Style deserializeStyle(final net.minecraft.network.chat.Style style) {
+        final @Nullable Style converted = this.converter.toAdventure(style);
+        return converted != null ? converted : this.convertWithCodecs(style, net.minecraft.network.chat.Style.Serializer.CODEC, AdventureCodecs.STYLE_MAP_CODEC.codec());
+    }
+
+    Component deserializeWithCodecs(final net.minecraft.network.chat.Component input) {
         if (input instanceof AdventureComponent) {
             return ((AdventureComponent) input).adventure;
         }
@@ -31,8 +79,7 @@ public final class WrapperAwareSerializer implements ComponentSerializer<Compone
         return converted.getFirst();
     }
 
-    @Override
-    public net.minecraft.network.chat.Component serialize(final Component component) {
+    net.minecraft.network.chat.Component serializeWithCodecs(final Component component) {
         final RegistryOps<Object> ops = this.javaOps.get();
         final Object obj = AdventureCodecs.COMPONENT_CODEC.encodeStart(ops, component)
             .getOrThrow(s -> new RuntimeException("Failed to encode adventure Component: " + component + "; " + s));
@@ -40,4 +87,13 @@ public final class WrapperAwareSerializer implements ComponentSerializer<Compone
             .getOrThrow(s -> new RuntimeException("Failed to decode to Minecraft Component: " + obj + "; " + s));
         return converted.getFirst();
     }
+
+    private <I, O> O convertWithCodecs(final I input, final Codec<I> inputCodec, final Codec<O> outputCodec) {
+        final RegistryOps<Object> ops = this.javaOps.get();
+        final Object obj = inputCodec.encodeStart(ops, input).getOrThrow(IllegalStateException::new);
+        return outputCodec.parse(ops, obj).getOrThrow(IllegalStateException::new);
+    }
+
+    private record CachedConversion(Component adventure, net.minecraft.network.chat.Component vanilla) {
+    }
 }
@@ -1,7 +1,9 @@
 package io.papermc.paper.command;
 
+import io.papermc.paper.inventory.MenuChangeTracker;
 import net.kyori.adventure.text.Component;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -78,6 +80,31 @@ public final class MSPTCommand extends Command {
                 )
             )
         );
+
+        double trackerTime = 0.0D;
+        for (ServerLevel level : server.getAllLevels()) {
+            trackerTime += level.getChunkSource().chunkMap.getAverageTrackerTime();
+        }
+        sender.sendMessage(text().content("Entity tracker ").color(GOLD)
+            .append(text("(avg from last 5s): ", YELLOW), text(DF.format(trackerTime) + "ms", GRAY))
+        );
+        int deferredEntities = 0;
+        int deferredBlockEntities = 0;
+        long deferredEntitiesTotal = 0L;
+        long deferredBlockEntitiesTotal = 0L;
+        for (ServerLevel level : server.getAllLevels()) {
+            deferredEntities += level.entityTicker.getDeferredLastTick();
+            deferredBlockEntities += level.blockEntityTicker.getDeferredLastTick();
+            deferredEntitiesTotal += level.entityTicker.getDeferredTotal();
+            deferredBlockEntitiesTotal += level.blockEntityTicker.getDeferredTotal();
+        }
+        sender.sendMessage(text().content("Tick budget deferrals ").color(GOLD)
+            .append(text("(last tick/total): ", YELLOW), text(deferredEntities + "/" + deferredEntitiesTotal + " entities, "
+                + deferredBlockEntities + "/" + deferredBlockEntitiesTotal + " block entities", GRAY))
+        );
+        sender.sendMessage(text().content("Menu synchronization ").color(GOLD)
+            .append(text("(last tick): ", YELLOW), text(MenuChangeTracker.slotsComparedLastTick() + " slots compared", GRAY))
+        );
         return true;
     }
 
@@ -0,0 +1,181 @@
+package io.papermc.paper.command.brigadier;
+
+import com.mojang.brigadier.tree.CommandNode;
+import com.mojang.brigadier.tree.RootCommandNode;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import net.minecraft.network.protocol.game.ClientboundCommandsPacket;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Caches the command trees sent to players. The tree a player is sent only depends on which of the dispatcher's nodes
+ * they can use, so players passing the requirements of the same nodes share one tree and the packet built from it,
+ * and an unchanged player is not rebuilt when their commands are resent after a permission change.
+ * <p>
+ * The cache is only valid for one set of root nodes, and is cleared when the root nodes change or commands are
+ * synced to all players.
+ */
+@NullMarked
+public final class SentCommandTreeCache {
+
+    private static final int MAX_TREES = 128;
+    private static final int MAX_FILTERED_PACKETS = 32;
+
+    private final Function<RootCommandNode<net.minecraft.commands.CommandSourceStack>, ClientboundCommandsPacket> packetFactory;
+    private volatile Generation generation = new Generation(List.of());
+
+    public SentCommandTreeCache(final Function<RootCommandNode<net.minecraft.commands.CommandSourceStack>, ClientboundCommandsPacket> packetFactory) {
+        this.packetFactory = packetFactory;
+    }
+
+    public void invalidate() {
+        this.generation = new Generation(List.of());
+    }
+
+    /**
+     * Returns the tree for the given source, building it if no source with the same usable nodes was sent one.
+     *
+     * @param rootChildren the children of the dispatcher's root node, as passed to the builder
+     * @param source the source the tree is sent to
+     * @param sendNamespaced whether namespaced commands are sent
+     * @param builder builds the tree for the source
+     */
+    public Tree get(
+        final List<CommandNode<net.minecraft.commands.CommandSourceStack>> rootChildren,
+        final net.minecraft.commands.CommandSourceStack source,
+        final boolean sendNamespaced,
+        final Supplier<RootCommandNode<net.minecraft.commands.CommandSourceStack>> builder
+    ) {
+        Generation generation = this.generation;
+        if (!generation.matches(rootChildren)) {
+            generation = new Generation(List.copyOf(rootChildren));
+            this.generation = generation;
+        }
+
+        final BitSet usable = new BitSet();
+        fingerprint(rootChildren, source, sendNamespaced, usable, 0);
+        final Tree cached = generation.trees.get(usable);
+        if (cached != null) {
+            return cached;
+        }
+        if (generation.trees.size() >= MAX_TREES) {
+            generation.trees.clear();
+        }
+        final Tree tree = new Tree(builder.get());
+        generation.trees.put(usable, tree);
+        return tree;
+    }
+
+    // must visit the nodes in the same order as Commands#fillUsableCommands
+    private static int fingerprint(
+        final Collection<CommandNode<net.minecraft.commands.CommandSourceStack>> children,
+        final net.minecraft.commands.CommandSourceStack source,
+        final boolean sendNamespaced,
+        final BitSet usable,
+        int index
+    ) {
+        for (CommandNode<net.minecraft.commands.CommandSourceStack> node : children) {
+            if (node.clientNode != null) {
+                node = node.clientNode;
+            }
+            if (!sendNamespaced && node.getName().contains(":")) {
+                continue;
+            }
+            if (node.canUse(source)) {
+                usable.set(index++);
+                if (!node.getChildren().isEmpty()) {
+                    index = fingerprint(node.getChildren(), source, sendNamespaced, usable, index);
+                }
+            } else {
+                ++index;
+            }
+        }
+        return index;
+    }
+
+    private record Generation(
+        List<CommandNode<net.minecraft.commands.CommandSourceStack>> rootChildren,
+        Map<BitSet, Tree> trees
+    ) {
+
+        Generation(final List<CommandNode<net.minecraft.commands.CommandSourceStack>> rootChildren) {
+            this(rootChildren, new ConcurrentHashMap<>());
+        }
+
+        boolean matches(final List<CommandNode<net.minecraft.commands.CommandSourceStack>> rootChildren) {
+            if (this.rootChildren.size() != rootChildren.size()) {
+                return false;
+            }
+            final Iterator<CommandNode<net.minecraft.commands.CommandSourceStack>> iterator = rootChildren.iterator();
+            for (final CommandNode<net.minecraft.commands.CommandSourceStack> node : this.rootChildren) {
+                if (node != iterator.next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A tree sent to players. It is shared between players and must not be modified.
+     */
+    public final class Tree {
+
+        private final RootCommandNode<net.minecraft.commands.CommandSourceStack> root;
+        private final Set<String> labels = new LinkedHashSet<>();
+        private final ClientboundCommandsPacket packet;
+        private final Map<Set<String>, ClientboundCommandsPacket> filteredPackets = new ConcurrentHashMap<>();
+
+        Tree(final RootCommandNode<net.minecraft.commands.CommandSourceStack> root) {
+            this.root = root;
+            for (final CommandNode<net.minecraft.commands.CommandSourceStack> node : root.getChildren()) {
+                this.labels.add(node.getName());
+            }
+            this.packet = SentCommandTreeCache.this.packetFactory.apply(root);
+        }
+
+        /**
+         * The labels of the root commands, to pass to {@link org.bukkit.event.player.PlayerCommandSendEvent}.
+         */
+        public Set<String> labels() {
+            return new LinkedHashSet<>(this.labels);
+        }
+
+        /**
+         * Returns the packet sending the root commands which have not been removed from the given labels.
+         */
+        public ClientboundCommandsPacket packet(final Collection<String> labels) {
+            if (labels.containsAll(this.labels)) {
+                return this.packet;
+            }
+            final Set<String> removed = new HashSet<>(this.labels);
+            removed.removeAll(labels);
+            final ClientboundCommandsPacket cached = this.filteredPackets.get(removed);
+            if (cached != null) {
+                return cached;
+            }
+            if (this.filteredPackets.size() >= MAX_FILTERED_PACKETS) {
+                this.filteredPackets.clear();
+            }
+            // the nodes are shared with the full tree, only the root is new
+            final RootCommandNode<net.minecraft.commands.CommandSourceStack> filtered = new RootCommandNode<>();
+            for (final CommandNode<net.minecraft.commands.CommandSourceStack> node : this.root.getChildren()) {
+                if (!removed.contains(node.getName())) {
+                    filtered.addChild(node);
+                }
+            }
+            final ClientboundCommandsPacket packet = SentCommandTreeCache.this.packetFactory.apply(filtered);
+            this.filteredPackets.put(removed, packet);
+            return packet;
+        }
+    }
+}
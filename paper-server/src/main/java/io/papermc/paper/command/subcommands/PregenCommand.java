@@ -0,0 +1,146 @@
+package io.papermc.paper.command.subcommands;
+
+import ca.spottedleaf.moonrise.common.util.CoordinateUtils;
+import io.papermc.paper.command.CommandUtil;
+import io.papermc.paper.command.PaperSubcommand;
+import io.papermc.paper.world.pregen.PregenShape;
+import io.papermc.paper.world.pregen.WorldPregenerator;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.text.DecimalFormat;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.server.level.ServerLevel;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.craftbukkit.CraftWorld;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.BLUE;
+import static net.kyori.adventure.text.format.NamedTextColor.DARK_AQUA;
+import static net.kyori.adventure.text.format.NamedTextColor.GREEN;
+import static net.kyori.adventure.text.format.NamedTextColor.RED;
+
+@DefaultQualifier(NonNull.class)
+public final class PregenCommand implements PaperSubcommand {
+
+    private static final ThreadLocal<DecimalFormat> ONE_DECIMAL_PLACES = ThreadLocal.withInitial(() -> {
+        return new DecimalFormat("#,##0.0");
+    });
+    private static final String USAGE = "/paper pregen <world> <start <square|circle> <centerX> <centerZ> <radius> | start regions <regionX,regionZ>... | pause | resume | cancel | status>";
+
+    @Override
+    public boolean execute(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(text("Usage: " + USAGE, RED));
+            return true;
+        }
+        final @Nullable World world = Bukkit.getWorld(args[0]);
+        if (world == null) {
+            sender.sendMessage(text("'" + args[0] + "' is not a valid world!", RED));
+            return true;
+        }
+        final ServerLevel level = ((CraftWorld)world).getHandle();
+        final WorldPregenerator pregenerator = level.pregenerator;
+
+        switch (args[1].toLowerCase(Locale.ROOT)) {
+            case "start" -> this.start(sender, world, pregenerator, args);
+            case "pause" -> sender.sendMessage(pregenerator.setPaused(true)
+                ? text("Paused pre-generation in " + world.getName(), GREEN)
+                : text("No running pre-generation in " + world.getName(), RED));
+            case "resume" -> sender.sendMessage(pregenerator.setPaused(false)
+                ? text("Resumed pre-generation in " + world.getName(), GREEN)
+                : text("No paused pre-generation in " + world.getName(), RED));
+            case "cancel" -> sender.sendMessage(pregenerator.cancel()
+                ? text("Cancelled pre-generation in " + world.getName(), GREEN)
+                : text("No pre-generation in " + world.getName(), RED));
+            case "status" -> this.status(sender, world, pregenerator);
+            default -> sender.sendMessage(text("Usage: " + USAGE, RED));
+        }
+        return true;
+    }
+
+    private void start(final CommandSender sender, final World world, final WorldPregenerator pregenerator, final String[] args) {
+        final PregenShape shape;
+        try {
+            if (args.length >= 4 && args[2].equalsIgnoreCase("regions")) {
+                final LongArrayList regions = new LongArrayList();
+                for (int i = 3; i < args.length; ++i) {
+                    final String[] split = args[i].split(",");
+                    if (split.length != 2) {
+                        throw new IllegalArgumentException("Invalid region '" + args[i] + "', expected <regionX>,<regionZ>");
+                    }
+                    regions.add(CoordinateUtils.getChunkKey(Integer.parseInt(split[0].trim()), Integer.parseInt(split[1].trim())));
+                }
+                shape = new PregenShape.Regions(regions.toLongArray());
+            } else if (args.length == 6) {
+                final int radius = Integer.parseInt(args[5]);
+                if (radius < 0) {
+                    throw new IllegalArgumentException("Radius cannot be negative!");
+                }
+                // block coordinates to chunk coordinates
+                shape = PregenShape.parse(args[2], Integer.parseInt(args[3]) >> 4, Integer.parseInt(args[4]) >> 4, (radius + 15) >> 4);
+            } else {
+                sender.sendMessage(text("Usage: " + USAGE, RED));
+                return;
+            }
+        } catch (final NumberFormatException ex) {
+            sender.sendMessage(text("Invalid number: " + ex.getMessage(), RED));
+            return;
+        } catch (final IllegalArgumentException ex) {
+            sender.sendMessage(text(ex.getMessage(), RED));
+            return;
+        }
+
+        if (!pregenerator.start(shape)) {
+            sender.sendMessage(text("A pre-generation is already running in " + world.getName() + ", cancel it first", RED));
+            return;
+        }
+        sender.sendMessage(text().append(
+            text("Started pre-generating ", BLUE),
+            text(shape.describe(), DARK_AQUA),
+            text(" in ", BLUE),
+            text(world.getName(), DARK_AQUA)
+        ));
+    }
+
+    private void status(final CommandSender sender, final World world, final WorldPregenerator pregenerator) {
+        final WorldPregenerator.@Nullable Job job = pregenerator.getJob();
+        if (job == null) {
+            sender.sendMessage(text("No pre-generation in " + world.getName(), BLUE));
+            return;
+        }
+        final DecimalFormat format = ONE_DECIMAL_PLACES.get();
+        final long completed = job.completedChunks();
+        final long total = Math.max(1L, job.totalChunks());
+        final long eta = job.etaSeconds();
+        sender.sendMessage(text().append(
+            text(world.getName() + ": ", BLUE),
+            text(completed + "/" + job.totalChunks(), DARK_AQUA),
+            text(" chunks (", BLUE),
+            text(format.format(100.0 * (double)completed / (double)total) + "%", DARK_AQUA),
+            text("), ", BLUE),
+            text(format.format(job.chunksPerSecond()), DARK_AQUA),
+            text(" chunks/s, ETA ", BLUE),
+            text(eta < 0L ? "unknown" : String.format(Locale.ROOT, "%d:%02d:%02d", eta / 3600L, (eta / 60L) % 60L, eta % 60L), DARK_AQUA),
+            text(job.isPaused() ? " (paused)" : ", " + job.inFlight() + " in flight", BLUE)
+        ));
+        if (job.failedChunks() > 0L) {
+            sender.sendMessage(text(job.failedChunks() + " chunk(s) failed to generate", RED));
+        }
+    }
+
+    @Override
+    public List<String> tabComplete(final CommandSender sender, final String subCommand, final String[] args) {
+        return switch (args.length) {
+            case 1 -> CommandUtil.getListMatchingLast(sender, args, Bukkit.getWorlds().stream().map(World::getName).toList());
+            case 2 -> CommandUtil.getListMatchingLast(sender, args, "start", "pause", "resume", "cancel", "status");
+            case 3 -> args[1].equalsIgnoreCase("start") ? CommandUtil.getListMatchingLast(sender, args, "square", "circle", "regions") : Collections.emptyList();
+            default -> Collections.emptyList();
+        };
+    }
+}
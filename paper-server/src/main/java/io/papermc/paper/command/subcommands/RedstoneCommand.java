@@ -0,0 +1,95 @@
+package io.papermc.paper.command.subcommands;
+
+import io.papermc.paper.command.CommandUtil;
+import io.papermc.paper.command.PaperSubcommand;
+import io.papermc.paper.redstone.DeduplicatingNeighborUpdater;
+import io.papermc.paper.redstone.RedstoneProfiler;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import org.bukkit.command.CommandSender;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.GREEN;
+import static net.kyori.adventure.text.format.NamedTextColor.RED;
+import static net.kyori.adventure.text.format.NamedTextColor.WHITE;
+
+@DefaultQualifier(NonNull.class)
+public final class RedstoneCommand implements PaperSubcommand {
+    @Override
+    public boolean execute(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length != 1) {
+            sender.sendMessage(text("Usage: /paper redstone <start | stop>", RED));
+            return true;
+        }
+        switch (args[0]) {
+            case "start" -> this.start(sender);
+            case "stop" -> this.stop(sender);
+            default -> sender.sendMessage(text("Usage: /paper redstone <start | stop>", RED));
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length == 1) {
+            return CommandUtil.getListMatchingLast(sender, args, "start", "stop");
+        }
+        return List.of();
+    }
+
+    private void start(final CommandSender sender) {
+        for (final ServerLevel level : MinecraftServer.getServer().getAllLevels()) {
+            if (level.redstoneProfiler.isProfiling()) {
+                sender.sendMessage(text("The redstone profiler is already running.", RED));
+                return;
+            }
+        }
+        for (final ServerLevel level : MinecraftServer.getServer().getAllLevels()) {
+            if (level.neighborUpdater instanceof final DeduplicatingNeighborUpdater updater) {
+                updater.resetCounters();
+            }
+            level.redstoneProfiler.start();
+        }
+        sender.sendMessage(text("Started profiling redstone, stop with /paper redstone stop.", GREEN));
+    }
+
+    private void stop(final CommandSender sender) {
+        boolean stopped = false;
+        for (final ServerLevel level : MinecraftServer.getServer().getAllLevels()) {
+            final RedstoneProfiler.@Nullable Results results = level.redstoneProfiler.stop();
+            if (results == null) {
+                continue;
+            }
+            if (!stopped) {
+                sender.sendMessage(text(String.format(Locale.ROOT, "Profiled redstone for %d ticks at %.2f TPS:", results.ticks(), results.ticksPerSecond()), GREEN));
+                stopped = true;
+            }
+            final List<RedstoneProfiler.Result> implementations = results.implementations().stream().filter(result -> !result.isEmpty()).toList();
+            if (implementations.isEmpty()) {
+                sender.sendMessage(text().color(GRAY)
+                    .append(text(level.getWorld().getName(), WHITE))
+                    .append(text(": no redstone updates")));
+            }
+            for (final RedstoneProfiler.Result result : implementations) {
+                sender.sendMessage(text().color(GRAY)
+                    .append(text(level.getWorld().getName() + " " + result.implementation().name().toLowerCase(Locale.ROOT), WHITE))
+                    .append(text(String.format(Locale.ROOT, ": %d block updates, %.3f ms/tick, %.2f us/block update",
+                        result.blockUpdates(), result.millisPerTick(results.ticks()), result.microsPerBlockUpdate()))));
+            }
+            if (level.paperConfig().misc.deduplicateNeighborUpdates && level.neighborUpdater instanceof final DeduplicatingNeighborUpdater updater) {
+                sender.sendMessage(text().color(GRAY)
+                    .append(text(level.getWorld().getName(), WHITE))
+                    .append(text(String.format(Locale.ROOT, ": %d of %d queued neighbor updates dropped as duplicates", updater.suppressed(), updater.queued()))));
+            }
+        }
+        if (!stopped) {
+            sender.sendMessage(text("The redstone profiler is not running.", RED));
+        }
+    }
+}
@@ -73,6 +73,55 @@ public class GlobalConfiguration extends ConfigurationPart {
             "Set to 0 to let the server configure it automatically per player, or set it to -1 to disable the limit."
         )
         public int playerMaxConcurrentChunkGenerates = 0;
+
+        @Comment(
+            "Set to true to serialize each unchanged chunk only once for all players it is sent to. " +
+            "Plugins that modify outgoing chunk packets for individual players may not expect the packet to be shared."
+        )
+        public boolean sharedChunkPacketCache = false;
+
+        @Comment("The maximum amount of chunk packets cached per world when the shared chunk packet cache is enabled.")
+        public int sharedChunkPacketCacheSize = 1024;
+
+        @Comment(
+            "Set to true to write the block and block entity data of chunk packets on the worker threads instead of the main thread. " +
+            "Chunk packets modified by Anti-Xray are always written by Anti-Xray itself."
+        )
+        public boolean asyncChunkPacketSerialization = false;
+    }
+
+    public AdaptiveViewDistance adaptiveViewDistance;
+
+    public class AdaptiveViewDistance extends ConfigurationPart {
+        @Comment(
+            "Set to true to shrink the send and simulation distance of individual players while the server is under load, " +
+            "and to grow them back up to the configured distances once it has recovered."
+        )
+        public boolean enabled = false;
+
+        @Comment("How often, in ticks, the distances are re-evaluated. Each evaluation changes the distances by at most one chunk.")
+        public int evaluationInterval = 40;
+
+        @Comment("The average MSPT above which the distances of all players shrink.")
+        public double shrinkMspt = 45.0;
+
+        @Comment("The average MSPT that has to be undercut before distances grow again.")
+        public double growMspt = 30.0;
+
+        @Comment("The amount of chunks a player may be waiting on to generate before their distances shrink. Set to -1 to ignore generation.")
+        public int generationBacklog = 512;
+
+        @Comment(
+            "The fraction of ticks in which a player's connection may be unable to take more data before their distances shrink. " +
+            "Set to -1 to ignore the connection."
+        )
+        public double connectionBackpressure = 0.5;
+
+        @Comment("The amount of consecutive healthy evaluations required before distances grow again.")
+        public int healthyEvaluationsToGrow = 3;
+
+        public int minSendDistance = 4;
+        public int minSimulationDistance = 2;
     }
     static void set(final GlobalConfiguration instance) {
         GlobalConfiguration.instance = instance;
@@ -154,6 +203,10 @@ public class GlobalConfiguration extends ConfigurationPart {
     public class Watchdog extends ConfigurationPart {
         public int earlyWarningEvery = 5000;
         public int earlyWarningDelay = 10000;
+        @Comment("Ticks taking longer than this many milliseconds have the server thread sampled, and a report of the hottest stacks is written to debug/lag-spikes. Set to -1 to disable.")
+        public int lagSpikeThreshold = -1;
+        @Comment("Milliseconds between samples of the server thread while a tick is over the lag spike threshold.")
+        public int lagSpikeSampleInterval = 5;
     }
 
     public SpamLimiter spamLimiter;
@@ -225,6 +278,22 @@ public class GlobalConfiguration extends ConfigurationPart {
         public int ioThreads = -1;
         public int workerThreads = -1;
         public String genParallelism = "default";
+        @Comment("The maximum amount of chunk generations the world pre-generator (/paper pregen) keeps in flight per world.")
+        public int pregeneratorParallelism = 64;
+        @Comment(
+            "The maximum size in megabytes of the LZ4 compressed data of recently unloaded chunks kept in memory per world, " +
+            "so chunks loaded again shortly after unloading are not read from their region file. Set to 0 to disable the cache."
+        )
+        public int unloadedChunkCacheSize = 0;
+        @Comment(
+            "Whether lighting the ring of loaded but not ticking chunks outside of every player's send distance is deferred, if they are only kept loaded by players " +
+            "or as neighbours of other chunks. Deferred chunks are lit when they start ticking, are first sent to a player or their light is queried, " +
+            "or in the background while the server has time left in a tick. " +
+            "Light at the edge of a player's view may briefly be incorrect until the neighbouring chunks are lit."
+        )
+        public boolean lazyLighting = false;
+        @Comment("The maximum amount of deferred chunks which are queued to be lit in the background per world and tick.")
+        public int lazyLightingBackgroundChunks = 8;
 
         @PostProcess
         private void postProcess() {
@@ -248,6 +317,32 @@ public class GlobalConfiguration extends ConfigurationPart {
         }
     }
 
+    public EntityTracker entityTracker;
+
+    public class EntityTracker extends ConfigurationPart {
+        @Comment(
+            "Set to true to work out which players may start or stop seeing each tracked entity on the worker threads. " +
+            "Pairing players with entities and sending entity updates stays on the main thread, in the same order as before."
+        )
+        public boolean parallelVisibility = false;
+
+        @Comment("The minimum amount of tracked entities in a world before the entity tracker is split across the worker threads.")
+        public int parallelThreshold = 1000;
+    }
+
+    public MenuSynchronization menuSynchronization;
+
+    public class MenuSynchronization extends ConfigurationPart {
+        @Comment(
+            "Set to true to only compare the slots of containers changed since an open menu was last synchronized, instead of every slot every tick. " +
+            "Chests, barrels, shulker boxes and plugin inventories are tracked, the slots of other containers, like the player's inventory, are always compared."
+        )
+        public boolean trackChangedSlots = false;
+
+        @Comment("How often, in ticks, every slot of an open menu is compared anyway, sending items of tracked containers changed in place without notifying the container.")
+        public int fullComparisonInterval = 20;
+    }
+
     public ItemValidation itemValidation;
 
     public class ItemValidation extends ConfigurationPart {
@@ -315,6 +410,11 @@ public class GlobalConfiguration extends ConfigurationPart {
             }
             return this.maxPerTick;
         }
+
+        @Comment("Whether player data should be compressed and written on a background thread. Repeated saves of a player that is still waiting to be written are merged into one write.")
+        public boolean asyncWrites = false;
+        @Comment("Whether player data files written on the background thread should be synced to disk before replacing the old files.")
+        public boolean fsync = false;
     }
 
     public Misc misc;
@@ -348,6 +448,8 @@ public class GlobalConfiguration extends ConfigurationPart {
         public boolean loadPermissionsYmlBeforePlugins = true;
         @Constraints.Min(4)
         public int regionFileCacheSize = 256;
+        @Comment("Saves the user cache, ops, whitelist and ban lists by appending changed entries to a journal next to each file instead of rewriting the whole file on every change. The journal is folded back into the file in the background.")
+        public boolean journaledUserLists = false;
         @Comment("See https://luckformula.emc.gs")
         public boolean useAlternativeLuckFormula = false;
         public boolean useDimensionTypeForCustomSpawners = false;
@@ -20,6 +20,7 @@ import io.papermc.paper.configuration.type.fallback.AutosavePeriod;
 import io.papermc.paper.configuration.type.number.BelowZeroToEmpty;
 import io.papermc.paper.configuration.type.number.DoubleOr;
 import io.papermc.paper.configuration.type.number.IntOr;
+import io.papermc.paper.world.spawning.SpawnPositionIndex;
 import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Reference2LongMap;
@@ -36,7 +37,9 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import net.minecraft.Util;
 import net.minecraft.commands.arguments.NbtPathArgument;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
+import net.minecraft.core.SectionPos;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.Difficulty;
@@ -175,6 +178,8 @@ public class WorldConfiguration extends ConfigurationPart {
             public List<NbtPathArgument.NbtPath> filteredEntityTagNbtPaths = NbtPathSerializer.fromString(List.of("Pos", "Motion", "sleeping_pos"));
             public boolean disableMobSpawnerSpawnEggTransformation = false;
             public boolean perPlayerMobSpawns = true;
+            @Comment("Tracks which chunk sections contain blocks natural spawning can start from, so spawn attempts skip chunks and heights where a mob category can never spawn.")
+            public boolean spawnPositionIndex = false;
             public boolean scanForLegacyEnderDragon = true;
             @MergeMap
             public Reference2IntMap<MobCategory> spawnLimits = Util.make(new Reference2IntOpenHashMap<>(NaturalSpawner.SPAWNING_CATEGORIES.length), map -> Arrays.stream(NaturalSpawner.SPAWNING_CATEGORIES).forEach(mobCategory -> map.put(mobCategory, -1)));
@@ -209,6 +214,13 @@ public class WorldConfiguration extends ConfigurationPart {
                 }
             }
 
+            @PostProcess
+            private void enableSpawnPositionIndex() {
+                if (this.spawnPositionIndex) {
+                    SpawnPositionIndex.enable();
+                }
+            }
+
             public WaterAnimalSpawnHeight wateranimalSpawnHeight;
 
             public class WaterAnimalSpawnHeight extends ConfigurationPart {
@@ -541,6 +553,17 @@ public class WorldConfiguration extends ConfigurationPart {
         public Table<EntityType<?>, String, Integer> behavior = Util.make(HashBasedTable.create(), table -> table.put(EntityType.VILLAGER, "validatenearbypoi", -1));
     }
 
+    public TickBudget tickBudget;
+
+    public class TickBudget extends ConfigurationPart {
+        @Comment("Milliseconds per tick that may be spent ticking entities before the remaining ones are deferred to the next tick. Set to -1 to disable.")
+        public int entities = -1;
+        @Comment("Milliseconds per tick that may be spent ticking block entities before the remaining ones are deferred to the next tick. Set to -1 to disable.")
+        public int blockEntities = -1;
+        @Comment("Entities and block entities within this many blocks of a player are never deferred.")
+        public int playerRadius = 32;
+    }
+
     @Setting(FeatureSeedsGeneration.FEATURE_SEEDS_KEY)
     public FeatureSeeds featureSeeds;
 
@@ -570,7 +593,13 @@ public class WorldConfiguration extends ConfigurationPart {
         public boolean updatePathfindingOnBlockUpdate = true;
         public boolean showSignClickCommandFailureMsgsToPlayer = false;
         public RedstoneImplementation redstoneImplementation = RedstoneImplementation.VANILLA;
+        @Comment("Chunk areas using another redstone implementation than the rest of the world. Wire networks crossing the border of an area are updated by the implementation of the wire the update started at.")
+        public List<RedstoneImplementationOverride> redstoneImplementationOverrides = List.of();
         public AlternateCurrentUpdateOrder alternateCurrentUpdateOrder = AlternateCurrentUpdateOrder.HORIZONTAL_FIRST_OUTWARD;
+        @Comment("The maximum amount of nodes of Alternate Current wire networks kept between updates, so networks updated again do not have to be discovered from scratch. Kept nodes are invalidated when their block is changed through the world or their chunk is unloaded; plugins writing to chunk sections directly bypass this. Set to 0 to discard them after every update.")
+        public int alternateCurrentCachedNodes = 0;
+        @Comment("Drops neighbor and shape updates identical to one already queued by the same running update. This cuts down on the updates cascading through large piston and redstone builds, but contraptions relying on a block being updated twice in a row may behave differently.")
+        public boolean deduplicateNeighborUpdates = false;
         public boolean disableEndCredits = false;
         public DoubleOr.Default maxLeashDistance = DoubleOr.Default.USE_DEFAULT;
         public boolean disableSprintInterruptionOnAttack = false;
@@ -579,10 +608,31 @@ public class WorldConfiguration extends ConfigurationPart {
         public boolean legacyEnderPearlBehavior = false;
         public boolean allowRemoteEnderDragonRespawning = false;
 
+        public RedstoneImplementation redstoneImplementation(final BlockPos pos) {
+            if (this.redstoneImplementationOverrides.isEmpty()) {
+                return this.redstoneImplementation;
+            }
+            final int chunkX = SectionPos.blockToSectionCoord(pos.getX());
+            final int chunkZ = SectionPos.blockToSectionCoord(pos.getZ());
+            for (final RedstoneImplementationOverride override : this.redstoneImplementationOverrides) {
+                if (override.contains(chunkX, chunkZ)) {
+                    return override.implementation();
+                }
+            }
+            return this.redstoneImplementation;
+        }
+
         public enum RedstoneImplementation {
             VANILLA, EIGENCRAFT, ALTERNATE_CURRENT
         }
 
+        @ConfigSerializable
+        public record RedstoneImplementationOverride(@Required int minChunkX, @Required int minChunkZ, @Required int maxChunkX, @Required int maxChunkZ, @Required RedstoneImplementation implementation) {
+            public boolean contains(final int chunkX, final int chunkZ) {
+                return chunkX >= this.minChunkX && chunkX <= this.maxChunkX && chunkZ >= this.minChunkZ && chunkZ <= this.maxChunkZ;
+            }
+        }
+
         public enum AlternateCurrentUpdateOrder {
         	HORIZONTAL_FIRST_OUTWARD, HORIZONTAL_FIRST_INWARD, VERTICAL_FIRST_OUTWARD, VERTICAL_FIRST_INWARD
         }
@@ -0,0 +1,151 @@
+package io.papermc.paper.inventory;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.world.CompoundContainer;
+import net.minecraft.world.Container;
+import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.level.block.entity.BarrelBlockEntity;
+import net.minecraft.world.level.block.entity.BaseContainerBlockEntity;
+import net.minecraft.world.level.block.entity.ChestBlockEntity;
+import net.minecraft.world.level.block.entity.ShulkerBoxBlockEntity;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Tracks which containers of an open menu changed since it was last synchronized, so only their slots are compared
+ * against what the client was last sent.
+ * <p>
+ * Only containers whose items are always changed through their own methods are tracked: chests, barrels, shulker boxes
+ * and plugin inventories. Block entities also changing their items while ticking, like furnaces and hoppers, only mark
+ * their chunk as changed, and the items of a player's inventory are changed in place all the time, so their slots are
+ * compared every time. Every slot is still compared on a fixed interval, catching items of tracked containers changed
+ * in place without the container being notified.
+ */
+@NullMarked
+public final class MenuChangeTracker {
+
+    public static final long UNTRACKED = -1L;
+
+    private static int countedTick = Integer.MIN_VALUE;
+    private static int comparedThisTick;
+    private static int comparedLastTick;
+
+    private final List<Slot> slots;
+    private int slotCount = -1;
+    private Container[] containers = new Container[0];
+    private int[][] containerSlots = new int[0][];
+    private long[] changeCounts = new long[0];
+    private final BitSet compared = new BitSet();
+    private boolean compareAll;
+    private int lastFullComparison;
+
+    public MenuChangeTracker(final List<Slot> slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * A container counting the changes to its items, which is only ever increased.
+     */
+    public interface TrackedContainer {
+
+        long changeCount();
+    }
+
+    public static long changeCount(final Container container) {
+        if (container instanceof ChestBlockEntity || container instanceof BarrelBlockEntity || container instanceof ShulkerBoxBlockEntity) {
+            return ((BaseContainerBlockEntity) container).changeCount;
+        }
+        if (container instanceof final TrackedContainer tracked) {
+            return tracked.changeCount();
+        }
+        if (container instanceof final CompoundContainer compound) {
+            final long first = changeCount(compound.container1);
+            final long second = changeCount(compound.container2);
+            return first == UNTRACKED || second == UNTRACKED ? UNTRACKED : first + second;
+        }
+        return UNTRACKED;
+    }
+
+    /**
+     * Notes a change to the items of a container made without it being notified, like setting an item through the API.
+     */
+    public static void markChanged(final Container container) {
+        if (container instanceof final BaseContainerBlockEntity blockEntity) {
+            blockEntity.changeCount++;
+        } else if (container instanceof final CompoundContainer compound) {
+            markChanged(compound.container1);
+        } else if (container instanceof final PaperInventoryCustomHolderContainer holder) {
+            markChanged(holder.delegate());
+        }
+    }
+
+    public static void countCompared(final int tick, final int slots) {
+        if (tick != countedTick) {
+            comparedLastTick = tick == countedTick + 1 ? comparedThisTick : 0;
+            comparedThisTick = 0;
+            countedTick = tick;
+        }
+        comparedThisTick += slots;
+    }
+
+    /**
+     * The amount of slots compared by all menus in the last full tick.
+     */
+    public static int slotsComparedLastTick() {
+        return comparedLastTick;
+    }
+
+    public void compareAll() {
+        this.compareAll = true;
+    }
+
+    /**
+     * Returns the slots to compare, or null to compare every slot.
+     */
+    public @Nullable BitSet comparedSlots(final int tick, final int fullComparisonInterval) {
+        if (this.slots.size() != this.slotCount) {
+            this.groupSlots();
+        }
+        if (this.compareAll || tick - this.lastFullComparison >= fullComparisonInterval) {
+            this.compareAll = false;
+            this.lastFullComparison = tick;
+            for (int i = 0; i < this.containers.length; i++) {
+                this.changeCounts[i] = changeCount(this.containers[i]);
+            }
+            countCompared(tick, this.slotCount);
+            return null;
+        }
+
+        this.compared.clear();
+        for (int i = 0; i < this.containers.length; i++) {
+            final long changeCount = changeCount(this.containers[i]);
+            if (changeCount == UNTRACKED || changeCount != this.changeCounts[i]) {
+                this.changeCounts[i] = changeCount;
+                for (final int slot : this.containerSlots[i]) {
+                    this.compared.set(slot);
+                }
+            }
+        }
+        countCompared(tick, this.compared.cardinality());
+        return this.compared;
+    }
+
+    private void groupSlots() {
+        final Map<Container, IntArrayList> slotsByContainer = new IdentityHashMap<>();
+        for (int i = 0; i < this.slots.size(); i++) {
+            slotsByContainer.computeIfAbsent(this.slots.get(i).container, container -> new IntArrayList()).add(i);
+        }
+        this.slotCount = this.slots.size();
+        this.containers = slotsByContainer.keySet().toArray(new Container[0]);
+        this.containerSlots = new int[this.containers.length][];
+        for (int i = 0; i < this.containers.length; i++) {
+            this.containerSlots[i] = slotsByContainer.get(this.containers[i]).toIntArray();
+        }
+        this.changeCounts = new long[this.containers.length];
+        this.compareAll = true;
+    }
+}
@@ -19,7 +19,7 @@ import org.checkerframework.framework.qual.DefaultQualifier;
 import java.util.List;
 
 @DefaultQualifier(NonNull.class)
-public final class PaperInventoryCustomHolderContainer implements Container {
+public final class PaperInventoryCustomHolderContainer implements Container, MenuChangeTracker.TrackedContainer {
 
     private final InventoryHolder owner;
     private final Container delegate;
@@ -54,6 +54,15 @@ public final class PaperInventoryCustomHolderContainer implements Container {
         return this.type;
     }
 
+    Container delegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public long changeCount() {
+        return MenuChangeTracker.changeCount(this.delegate);
+    }
+
     @Override
     public int getContainerSize() {
         return this.delegate.getContainerSize();
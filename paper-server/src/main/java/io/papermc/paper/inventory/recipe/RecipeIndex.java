@@ -0,0 +1,112 @@
+package io.papermc.paper.inventory.recipe;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.PlacementInfo;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeInput;
+import net.minecraft.world.item.crafting.ShapedRecipe;
+import net.minecraft.world.item.crafting.ShapelessRecipe;
+import net.minecraft.world.item.crafting.SingleItemRecipe;
+import net.minecraft.world.item.crafting.TransmuteRecipe;
+import net.minecraft.world.level.Level;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Indexes the recipes of a type by the items their ingredients accept, so finding the recipes matching an input only
+ * tests the recipes accepting every item in it instead of every recipe of the type. Exact ingredients are indexed by
+ * the items of their stacks, the components are still compared when matching.
+ * <p>
+ * Recipes whose matching does not only depend on their ingredients, like the special crafting recipes, are tested for
+ * every input. Candidates keep the order of the recipes given, as the last matching recipe takes priority.
+ */
+@NullMarked
+public final class RecipeIndex<I extends RecipeInput, T extends Recipe<I>> {
+
+    private final List<Entry<T>> unindexed = new ArrayList<>();
+    private final Map<Item, List<Entry<T>>> byItem = new Reference2ObjectOpenHashMap<>();
+
+    public RecipeIndex(final Collection<RecipeHolder<T>> recipes) {
+        int ordinal = 0;
+        for (final RecipeHolder<T> holder : recipes) {
+            final @Nullable Set<Item> items = acceptedItems(holder.value());
+            final Entry<T> entry = new Entry<>(ordinal++, holder, items);
+            if (items == null) {
+                this.unindexed.add(entry);
+                continue;
+            }
+            for (final Item item : items) {
+                this.byItem.computeIfAbsent(item, key -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    private static @Nullable Set<Item> acceptedItems(final Recipe<?> recipe) {
+        // these only match if every item of the input is accepted by one of their ingredients
+        if (!(recipe instanceof ShapedRecipe || recipe instanceof ShapelessRecipe || recipe instanceof TransmuteRecipe || recipe instanceof SingleItemRecipe)) {
+            return null;
+        }
+        final PlacementInfo placementInfo = recipe.placementInfo();
+        if (placementInfo.isImpossibleToPlace()) {
+            return null;
+        }
+        final Set<Item> items = new ReferenceOpenHashSet<>();
+        for (final Ingredient ingredient : placementInfo.ingredients()) {
+            ingredient.items().forEach(item -> items.add(item.value()));
+        }
+        return items;
+    }
+
+    public Stream<RecipeHolder<T>> getRecipesFor(final I input, final Level level) {
+        return this.candidates(input).stream().filter(holder -> holder.value().matches(input, level));
+    }
+
+    List<RecipeHolder<T>> candidates(final I input) {
+        final Set<Item> items = new ReferenceArraySet<>();
+        @Nullable List<Entry<T>> smallest = null;
+        for (int i = 0; i < input.size(); i++) {
+            final ItemStack stack = input.getItem(i);
+            if (stack.isEmpty() || !items.add(stack.getItem())) {
+                continue;
+            }
+            final List<Entry<T>> entries = this.byItem.getOrDefault(stack.getItem(), List.of());
+            if (smallest == null || entries.size() < smallest.size()) {
+                smallest = entries;
+            }
+        }
+        if (smallest == null) {
+            smallest = List.of();
+        }
+
+        // merge both by ordinal, skipping the indexed recipes not accepting every item
+        final List<RecipeHolder<T>> candidates = new ArrayList<>(Math.min(smallest.size(), 16) + this.unindexed.size());
+        int indexed = 0;
+        int unindexed = 0;
+        while (indexed < smallest.size() || unindexed < this.unindexed.size()) {
+            if (unindexed < this.unindexed.size() && (indexed == smallest.size() || this.unindexed.get(unindexed).ordinal < smallest.get(indexed).ordinal)) {
+                candidates.add(this.unindexed.get(unindexed++).holder);
+                continue;
+            }
+            final Entry<T> entry = smallest.get(indexed++);
+            if (entry.items == null || entry.items.containsAll(items)) {
+                candidates.add(entry.holder);
+            }
+        }
+        return candidates;
+    }
+
+    private record Entry<T extends Recipe<?>>(int ordinal, RecipeHolder<T> holder, @Nullable Set<Item> items) {
+    }
+}
@@ -0,0 +1,126 @@
+package io.papermc.paper.redstone;
+
+import java.util.HashSet;
+import java.util.Set;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.redstone.CollectingNeighborUpdater;
+import net.minecraft.world.level.redstone.Orientation;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Drops neighbour and shape updates identical to an update already queued in the same layer, the updates queued while
+ * running a single update. Queued updates run in layers, depth first, so an update queued twice in a layer runs again
+ * after the updates queued between both, which usually changes nothing but can cascade into many more updates.
+ * <p>
+ * Updates queued while no update is running run right away and are never dropped. Contraptions relying on a block
+ * being updated twice by the same source in one step may behave differently, so this is disabled by default.
+ */
+@NullMarked
+public final class DeduplicatingNeighborUpdater extends CollectingNeighborUpdater {
+
+    private final Level level;
+    private final Set<Object> queuedThisLayer = new HashSet<>();
+    private long queued;
+    private long suppressed;
+
+    public DeduplicatingNeighborUpdater(final Level level, final int maxChainedNeighborUpdates) {
+        super(level, maxChainedNeighborUpdates);
+        this.level = level;
+    }
+
+    private boolean deduplicates() {
+        return this.count > 0 && this.level.paperConfig().misc.deduplicateNeighborUpdates;
+    }
+
+    private boolean isDuplicate(final Object update) {
+        if (this.addedThisLayer.isEmpty()) {
+            // the previous layer was moved to the stack
+            this.queuedThisLayer.clear();
+        }
+        this.queued++;
+        if (this.queuedThisLayer.add(update)) {
+            return false;
+        }
+        this.suppressed++;
+        return true;
+    }
+
+    @Override
+    public void shapeUpdate(final Direction direction, final BlockState state, final BlockPos pos, final BlockPos neighborPos, final int flags, final int recursionLeft) {
+        if (this.deduplicates() && this.isDuplicate(new ShapeUpdate(direction, state, pos.immutable(), neighborPos.immutable(), flags, recursionLeft))) {
+            return;
+        }
+        this.countBlockUpdates(1);
+        super.shapeUpdate(direction, state, pos, neighborPos, flags, recursionLeft);
+    }
+
+    @Override
+    public void neighborChanged(final BlockPos pos, final Block neighborBlock, final @Nullable Orientation orientation) {
+        if (this.deduplicates() && this.isDuplicate(new NeighborUpdate(pos.immutable(), neighborBlock, orientation))) {
+            return;
+        }
+        this.countBlockUpdates(1);
+        super.neighborChanged(pos, neighborBlock, orientation);
+    }
+
+    @Override
+    public void neighborChanged(final BlockState state, final BlockPos pos, final Block neighborBlock, final @Nullable Orientation orientation, final boolean movedByPiston) {
+        if (this.deduplicates() && this.isDuplicate(new FullNeighborUpdate(state, pos.immutable(), neighborBlock, orientation, movedByPiston))) {
+            return;
+        }
+        this.countBlockUpdates(1);
+        super.neighborChanged(state, pos, neighborBlock, orientation, movedByPiston);
+    }
+
+    @Override
+    public void updateNeighborsAtExceptFromFacing(final BlockPos pos, final Block block, final @Nullable Direction facing, final @Nullable Orientation orientation) {
+        if (this.deduplicates() && this.isDuplicate(new MultiNeighborUpdate(pos.immutable(), block, facing, orientation))) {
+            return;
+        }
+        this.countBlockUpdates(facing == null ? 6 : 5);
+        super.updateNeighborsAtExceptFromFacing(pos, block, facing, orientation);
+    }
+
+    private void countBlockUpdates(final int count) {
+        if (this.level instanceof final ServerLevel serverLevel) {
+            serverLevel.redstoneProfiler.blockUpdates(count);
+        }
+    }
+
+    /**
+     * The amount of updates queued while deduplicating since the counters were last reset.
+     */
+    public long queued() {
+        return this.queued;
+    }
+
+    /**
+     * The amount of duplicate updates dropped since the counters were last reset.
+     */
+    public long suppressed() {
+        return this.suppressed;
+    }
+
+    public void resetCounters() {
+        this.queued = 0L;
+        this.suppressed = 0L;
+    }
+
+    private record ShapeUpdate(Direction direction, BlockState state, BlockPos pos, BlockPos neighborPos, int flags, int recursionLeft) {
+    }
+
+    private record NeighborUpdate(BlockPos pos, Block source, @Nullable Orientation orientation) {
+    }
+
+    private record FullNeighborUpdate(BlockState state, BlockPos pos, Block source, @Nullable Orientation orientation, boolean movedByPiston) {
+    }
+
+    private record MultiNeighborUpdate(BlockPos pos, Block source, @Nullable Direction skip, @Nullable Orientation orientation) {
+    }
+}
@@ -0,0 +1,120 @@
+package io.papermc.paper.redstone;
+
+import io.papermc.paper.configuration.WorldConfiguration.Misc.RedstoneImplementation;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.server.MinecraftServer;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Counts the block updates emitted by each redstone implementation of a world and the time spent in them, so the
+ * implementations can be compared on the same contraptions, for example by running copies of them in areas configured
+ * to use different implementations.
+ * <p>
+ * Block updates are the neighbour and shape updates emitted while an implementation handles a wire update, including
+ * the ones emitted by blocks reacting to them right away. Only the time spent in the implementation itself is counted.
+ * Neighbour updates emitted by it are usually run after it returns, and the block updates and time of a wire update
+ * handled while another one is still running are only counted for the inner update.
+ */
+@NullMarked
+public final class RedstoneProfiler {
+
+    private static final long NOT_PROFILING = Long.MIN_VALUE;
+    private static final RedstoneImplementation[] IMPLEMENTATIONS = RedstoneImplementation.values();
+
+    private boolean profiling;
+    private long[] blockUpdates = new long[IMPLEMENTATIONS.length];
+    private long[] nanos = new long[IMPLEMENTATIONS.length];
+    private RedstoneImplementation[] nestedImplementations = new RedstoneImplementation[8];
+    private long[] nestedNanos = new long[8];
+    private int depth;
+    private int startTick;
+    private long startNanos;
+
+    public long begin(final RedstoneImplementation implementation) {
+        if (!this.profiling) {
+            return NOT_PROFILING;
+        }
+        if (this.depth == this.nestedNanos.length) {
+            this.nestedImplementations = Arrays.copyOf(this.nestedImplementations, this.depth * 2);
+            this.nestedNanos = Arrays.copyOf(this.nestedNanos, this.depth * 2);
+        }
+        this.nestedImplementations[this.depth] = implementation;
+        this.nestedNanos[this.depth++] = 0L;
+        return System.nanoTime();
+    }
+
+    public void end(final long start) {
+        if (start == NOT_PROFILING || this.depth == 0) {
+            return;
+        }
+        final long elapsed = System.nanoTime() - start;
+        final RedstoneImplementation implementation = this.nestedImplementations[--this.depth];
+        final long nested = this.nestedNanos[this.depth];
+        if (this.depth > 0) {
+            this.nestedNanos[this.depth - 1] += elapsed;
+        }
+        this.nanos[implementation.ordinal()] += elapsed - nested;
+    }
+
+    /**
+     * Counts block updates emitted in this world, attributed to the innermost wire update running.
+     */
+    public void blockUpdates(final int count) {
+        if (this.depth > 0) {
+            this.blockUpdates[this.nestedImplementations[this.depth - 1].ordinal()] += count;
+        }
+    }
+
+    public boolean isProfiling() {
+        return this.profiling;
+    }
+
+    public void start() {
+        this.blockUpdates = new long[IMPLEMENTATIONS.length];
+        this.nanos = new long[IMPLEMENTATIONS.length];
+        this.depth = 0;
+        this.startTick = MinecraftServer.currentTick;
+        this.startNanos = System.nanoTime();
+        this.profiling = true;
+    }
+
+    /**
+     * Stops profiling, returning the results or null if the profiler was not running.
+     */
+    public @Nullable Results stop() {
+        if (!this.profiling) {
+            return null;
+        }
+        this.profiling = false;
+        this.depth = 0;
+        final Result[] results = new Result[IMPLEMENTATIONS.length];
+        for (int i = 0; i < IMPLEMENTATIONS.length; i++) {
+            results[i] = new Result(IMPLEMENTATIONS[i], this.blockUpdates[i], this.nanos[i]);
+        }
+        return new Results(MinecraftServer.currentTick - this.startTick, System.nanoTime() - this.startNanos, Arrays.asList(results));
+    }
+
+    public record Results(int ticks, long nanos, List<Result> implementations) {
+
+        public double ticksPerSecond() {
+            return this.nanos == 0L ? 0.0 : this.ticks * 1.0E9 / this.nanos;
+        }
+    }
+
+    public record Result(RedstoneImplementation implementation, long blockUpdates, long nanos) {
+
+        public boolean isEmpty() {
+            return this.blockUpdates == 0L && this.nanos == 0L;
+        }
+
+        public double millisPerTick(final int ticks) {
+            return ticks == 0 ? 0.0 : this.nanos / 1.0E6 / ticks;
+        }
+
+        public double microsPerBlockUpdate() {
+            return this.blockUpdates == 0L ? 0.0 : this.nanos / 1.0E3 / this.blockUpdates;
+        }
+    }
+}
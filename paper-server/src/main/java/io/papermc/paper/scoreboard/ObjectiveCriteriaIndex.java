@@ -0,0 +1,67 @@
+package io.papermc.paper.scoreboard;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import net.minecraft.server.ServerScoreboard;
+import net.minecraft.world.scores.Objective;
+import net.minecraft.world.scores.ScoreAccess;
+import net.minecraft.world.scores.ScoreHolder;
+import net.minecraft.world.scores.Scoreboard;
+import net.minecraft.world.scores.criteria.ObjectiveCriteria;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Indexes the scoreboards updated by vanilla criteria by the criteria of their objectives, so updating a criteria
+ * only visits the scoreboards with an objective using it. Registered scoreboards keep the index up to date when
+ * objectives are added or removed, and are only weakly referenced, as is done for plugin scoreboards in general.
+ */
+@NullMarked
+public final class ObjectiveCriteriaIndex {
+
+    private final Map<ObjectiveCriteria, Set<Scoreboard>> scoreboards = new Reference2ObjectOpenHashMap<>();
+
+    public void register(final ServerScoreboard scoreboard) {
+        if (scoreboard.criteriaIndex == this) {
+            return;
+        }
+        scoreboard.criteriaIndex = this;
+        for (final Objective objective : scoreboard.getObjectives()) {
+            this.onObjectiveAdded(scoreboard, objective);
+        }
+    }
+
+    public void onObjectiveAdded(final Scoreboard scoreboard, final Objective objective) {
+        this.scoreboards.computeIfAbsent(objective.getCriteria(), criteria -> Collections.newSetFromMap(new WeakHashMap<>())).add(scoreboard);
+    }
+
+    public void onObjectiveRemoved(final Scoreboard scoreboard, final Objective objective) {
+        final ObjectiveCriteria criteria = objective.getCriteria();
+        for (final Objective other : scoreboard.getObjectives()) {
+            if (other.getCriteria() == criteria) {
+                return;
+            }
+        }
+        final @Nullable Set<Scoreboard> scoreboards = this.scoreboards.get(criteria);
+        if (scoreboards != null) {
+            scoreboards.remove(scoreboard);
+            if (scoreboards.isEmpty()) {
+                this.scoreboards.remove(criteria);
+            }
+        }
+    }
+
+    public void forAllObjectives(final ObjectiveCriteria criteria, final ScoreHolder holder, final Consumer<ScoreAccess> consumer) {
+        final @Nullable Set<Scoreboard> scoreboards = this.scoreboards.get(criteria);
+        if (scoreboards == null) {
+            return;
+        }
+        for (final Scoreboard scoreboard : scoreboards) {
+            scoreboard.forAllObjectives(criteria, holder, consumer);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.papermc.paper.scoreboard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import net.minecraft.network.protocol.BundlerInfo;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundResetScorePacket;
+import net.minecraft.network.protocol.game.ClientboundSetDisplayObjectivePacket;
+import net.minecraft.network.protocol.game.ClientboundSetObjectivePacket;
+import net.minecraft.network.protocol.game.ClientboundSetPlayerTeamPacket;
+import net.minecraft.network.protocol.game.ClientboundSetScorePacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.scores.DisplaySlot;
+import net.minecraft.world.scores.Objective;
+import net.minecraft.world.scores.PlayerScoreEntry;
+import net.minecraft.world.scores.PlayerTeam;
+import net.minecraft.world.scores.Scoreboard;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Computes the packets moving a client from one scoreboard to another. A client only knows the displayed objectives
+ * with their scores and the teams of its scoreboard, all identified by name, so only the entries which differ between
+ * the two boards are removed, changed or added.
+ */
+@NullMarked
+public final class ScoreboardTransition {
+
+    private ScoreboardTransition() {
+    }
+
+    public static void send(final ServerPlayer player, final Scoreboard from, final Scoreboard to) {
+        final List<Packet<? super ClientGamePacketListener>> packets = packets(from, to);
+        if (packets.size() == 1) {
+            player.connection.send(packets.getFirst());
+            return;
+        }
+        // the client applies a bundle at once, so it never shows a half switched board
+        for (int i = 0; i < packets.size(); i += BundlerInfo.BUNDLE_SIZE_LIMIT) {
+            player.connection.send(new ClientboundBundlePacket(packets.subList(i, Math.min(packets.size(), i + BundlerInfo.BUNDLE_SIZE_LIMIT))));
+        }
+    }
+
+    public static List<Packet<? super ClientGamePacketListener>> packets(final Scoreboard from, final Scoreboard to) {
+        final List<Packet<? super ClientGamePacketListener>> packets = new ArrayList<>();
+        // removals first, so a player moving between teams is never in two of them on the client
+        teams(from, to, packets);
+        objectives(from, to, packets);
+        return packets;
+    }
+
+    private static void teams(final Scoreboard from, final Scoreboard to, final List<Packet<? super ClientGamePacketListener>> packets) {
+        final Map<String, PlayerTeam> oldTeams = new HashMap<>();
+        for (final PlayerTeam team : from.getPlayerTeams()) {
+            oldTeams.put(team.getName(), team);
+        }
+        final List<Packet<? super ClientGamePacketListener>> additions = new ArrayList<>();
+        final Set<String> newTeams = new HashSet<>();
+        for (final PlayerTeam team : to.getPlayerTeams()) {
+            newTeams.add(team.getName());
+            final @Nullable PlayerTeam oldTeam = oldTeams.get(team.getName());
+            if (oldTeam == null) {
+                additions.add(ClientboundSetPlayerTeamPacket.createAddOrModifyPacket(team, true));
+                continue;
+            }
+            if (!sameParameters(oldTeam, team)) {
+                additions.add(ClientboundSetPlayerTeamPacket.createAddOrModifyPacket(team, false));
+            }
+            final Collection<String> oldPlayers = oldTeam.getPlayers();
+            final Collection<String> newPlayers = team.getPlayers();
+            final List<String> removed = new ArrayList<>();
+            for (final String player : oldPlayers) {
+                if (!newPlayers.contains(player)) {
+                    removed.add(player);
+                }
+            }
+            if (!removed.isEmpty()) {
+                packets.add(ClientboundSetPlayerTeamPacket.createMultiplePlayerPacket(team, removed, ClientboundSetPlayerTeamPacket.Action.REMOVE));
+            }
+            final List<String> added = new ArrayList<>();
+            for (final String player : newPlayers) {
+                if (!oldPlayers.contains(player)) {
+                    added.add(player);
+                }
+            }
+            if (!added.isEmpty()) {
+                additions.add(ClientboundSetPlayerTeamPacket.createMultiplePlayerPacket(team, added, ClientboundSetPlayerTeamPacket.Action.ADD));
+            }
+        }
+        for (final PlayerTeam team : oldTeams.values()) {
+            if (!newTeams.contains(team.getName())) {
+                packets.add(ClientboundSetPlayerTeamPacket.createRemovePacket(team));
+            }
+        }
+        packets.addAll(additions);
+    }
+
+    private static boolean sameParameters(final PlayerTeam from, final PlayerTeam to) {
+        return from.getDisplayName().equals(to.getDisplayName())
+            && from.getPlayerPrefix().equals(to.getPlayerPrefix())
+            && from.getPlayerSuffix().equals(to.getPlayerSuffix())
+            && from.packOptions() == to.packOptions()
+            && from.getNameTagVisibility() == to.getNameTagVisibility()
+            && from.getCollisionRule() == to.getCollisionRule()
+            && from.getColor() == to.getColor();
+    }
+
+    private static void objectives(final Scoreboard from, final Scoreboard to, final List<Packet<? super ClientGamePacketListener>> packets) {
+        final Map<String, Objective> oldObjectives = displayedObjectives(from);
+        final Map<String, Objective> newObjectives = displayedObjectives(to);
+
+        for (final Objective objective : oldObjectives.values()) {
+            if (!newObjectives.containsKey(objective.getName())) {
+                // also clears its display slots on the client
+                packets.add(new ClientboundSetObjectivePacket(objective, ClientboundSetObjectivePacket.METHOD_REMOVE));
+            }
+        }
+
+        for (final Objective objective : newObjectives.values()) {
+            final @Nullable Objective oldObjective = oldObjectives.get(objective.getName());
+            if (oldObjective == null) {
+                packets.add(new ClientboundSetObjectivePacket(objective, ClientboundSetObjectivePacket.METHOD_ADD));
+                for (final PlayerScoreEntry score : to.listPlayerScores(objective)) {
+                    packets.add(scorePacket(objective, score));
+                }
+                continue;
+            }
+            if (!oldObjective.getDisplayName().equals(objective.getDisplayName())
+                || oldObjective.getRenderType() != objective.getRenderType()
+                || !Objects.equals(oldObjective.numberFormat(), objective.numberFormat())) {
+                packets.add(new ClientboundSetObjectivePacket(objective, ClientboundSetObjectivePacket.METHOD_CHANGE));
+            }
+            final Map<String, PlayerScoreEntry> oldScores = new HashMap<>();
+            for (final PlayerScoreEntry score : from.listPlayerScores(oldObjective)) {
+                oldScores.put(score.owner(), score);
+            }
+            for (final PlayerScoreEntry score : to.listPlayerScores(objective)) {
+                if (!score.equals(oldScores.remove(score.owner()))) {
+                    packets.add(scorePacket(objective, score));
+                }
+            }
+            for (final String owner : oldScores.keySet()) {
+                packets.add(new ClientboundResetScorePacket(owner, objective.getName()));
+            }
+        }
+
+        for (final DisplaySlot slot : DisplaySlot.values()) {
+            final @Nullable Objective oldObjective = from.getDisplayObjective(slot);
+            final @Nullable Objective newObjective = to.getDisplayObjective(slot);
+            final @Nullable String oldName = oldObjective == null || !newObjectives.containsKey(oldObjective.getName()) ? null : oldObjective.getName();
+            final @Nullable String newName = newObjective == null ? null : newObjective.getName();
+            if (!Objects.equals(oldName, newName)) {
+                packets.add(new ClientboundSetDisplayObjectivePacket(slot, newObjective));
+            }
+        }
+    }
+
+    private static Map<String, Objective> displayedObjectives(final Scoreboard scoreboard) {
+        final Map<String, Objective> objectives = new HashMap<>();
+        for (final DisplaySlot slot : DisplaySlot.values()) {
+            final @Nullable Objective objective = scoreboard.getDisplayObjective(slot);
+            if (objective != null) {
+                objectives.put(objective.getName(), objective);
+            }
+        }
+        return objectives;
+    }
+
+    private static ClientboundSetScorePacket scorePacket(final Objective objective, final PlayerScoreEntry score) {
+        return new ClientboundSetScorePacket(
+            score.owner(), objective.getName(), score.value(), Optional.ofNullable(score.display()), Optional.ofNullable(score.numberFormatOverride())
+        );
+    }
+}
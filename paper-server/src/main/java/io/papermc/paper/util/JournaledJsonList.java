@@ -0,0 +1,291 @@
+package io.papermc.paper.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.mojang.logging.LogUtils;
+import net.minecraft.DefaultUncaughtExceptionHandlerWithName;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Persists a keyed list of JSON entries (user cache, ops, whitelist and ban lists) as the usual snapshot file plus an
+ * append-only journal of the entries added and removed since the snapshot was written.
+ * <p>
+ * Saving compares the current entries to the last persisted ones by identity, so only changed entries are serialized
+ * and appended. Once the journal grows past a fraction of the list it is rotated and folded into a new snapshot on the
+ * save executor. A journal left behind by a crash is merged into the snapshot when the list is created, so the snapshot
+ * always has the vanilla format by the time it is read.
+ */
+public final class JournaledJsonList<K, V> {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson JOURNAL_GSON = new GsonBuilder().disableHtmlEscaping().create();
+    private static final String OP_ADD = "add";
+    private static final String OP_REMOVE = "remove";
+    private static final int MIN_COMPACT_THRESHOLD = 1024;
+    // a single thread, so queued saves and compactions run in the order they were queued
+    private static final Executor SAVE_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("Paper Journaled List Saver")
+        .setDaemon(true)
+        .setUncaughtExceptionHandler(new DefaultUncaughtExceptionHandlerWithName(LOGGER))
+        .build()
+    );
+
+    private final Path snapshot;
+    private final Path journal;
+    private final Path compactingJournal;
+    private final Gson snapshotGson;
+    private final Function<V, JsonObject> serializer;
+    private final Executor executor;
+
+    private final Object journalLock = new Object();
+    private final Object snapshotLock = new Object();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    // guarded by journalLock, null until the first snapshot of this run is written
+    private @Nullable Map<K, V> persisted;
+    private int journalEntries;
+    // guarded by journalLock, incremented whenever the entries are snapshotted
+    private long generation;
+    // guarded by snapshotLock, the generation of the last snapshot written
+    private long writtenGeneration;
+
+    public JournaledJsonList(final File file, final Gson snapshotGson, final Function<V, JsonObject> serializer) {
+        this(file, snapshotGson, serializer, SAVE_EXECUTOR);
+    }
+
+    JournaledJsonList(final File file, final Gson snapshotGson, final Function<V, JsonObject> serializer, final Executor executor) {
+        this.snapshot = file.toPath();
+        this.journal = this.snapshot.resolveSibling(file.getName() + ".journal");
+        this.compactingJournal = this.snapshot.resolveSibling(file.getName() + ".journal.compacting");
+        this.snapshotGson = snapshotGson;
+        this.serializer = serializer;
+        this.executor = executor;
+        this.recover();
+    }
+
+    /**
+     * Returns whether changes may still be pending in a journal, in which case saves must go through this list
+     * even if journaling was disabled in the meantime.
+     */
+    public boolean isActive() {
+        synchronized (this.journalLock) {
+            return this.journalEntries != 0 || this.compacting.get();
+        }
+    }
+
+    /**
+     * Queues a save of the entries on the save executor, after every save and compaction queued before it.
+     *
+     * @see #save(Supplier, boolean)
+     */
+    public void saveAsync(final Supplier<? extends Map<K, V>> entries, final boolean journal) {
+        this.executor.execute(() -> {
+            try {
+                this.save(entries, journal);
+            } catch (final IOException ex) {
+                LOGGER.warn("Failed to save {}", this.snapshot, ex);
+            }
+        });
+    }
+
+    /**
+     * Persists the entries.
+     *
+     * @param entries supplies the current entries, which are compared by identity against the persisted ones and
+     *                written in iteration order when a snapshot is written. Called under the journal lock, so the
+     *                entries of later saves are never older than those of earlier ones
+     * @param journal whether to append the changes to the journal, otherwise a full snapshot is written right away
+     */
+    public void save(final Supplier<? extends Map<K, V>> entries, final boolean journal) throws IOException {
+        synchronized (this.journalLock) {
+            final Map<K, V> current = entries.get();
+            if (!journal || this.persisted == null) {
+                final long generation = ++this.generation;
+                synchronized (this.snapshotLock) {
+                    this.writeEntries(current.values());
+                    this.writtenGeneration = generation;
+                    Files.deleteIfExists(this.journal);
+                    Files.deleteIfExists(this.compactingJournal);
+                }
+                this.persisted = new HashMap<>(current);
+                this.journalEntries = 0;
+                return;
+            }
+
+            final List<JsonObject> ops = this.diff(current, this.persisted);
+            if (ops.isEmpty()) {
+                return;
+            }
+
+            try (final BufferedWriter writer = Files.newBufferedWriter(this.journal, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (final JsonObject op : ops) {
+                    writer.write(JOURNAL_GSON.toJson(op));
+                    writer.newLine();
+                }
+            }
+            this.journalEntries += ops.size();
+
+            if (this.journalEntries >= Math.max(MIN_COMPACT_THRESHOLD, this.persisted.size() / 4) && this.compacting.compareAndSet(false, true)) {
+                try {
+                    Files.move(this.journal, this.compactingJournal);
+                } catch (final IOException ex) {
+                    this.compacting.set(false);
+                    throw ex;
+                }
+                this.journalEntries = 0;
+                // snapshot the entries together with the rotation, the journal started now is replayed on top of them
+                final List<V> snapshot = new ArrayList<>(current.values());
+                final long generation = ++this.generation;
+                this.executor.execute(() -> this.compact(snapshot, generation));
+            }
+        }
+    }
+
+    private List<JsonObject> diff(final Map<K, V> entries, final Map<K, V> persisted) {
+        final List<JsonObject> ops = new ArrayList<>();
+        for (final Map.Entry<K, V> entry : entries.entrySet()) {
+            final V value = entry.getValue();
+            final V old = persisted.put(entry.getKey(), value);
+            if (old == value) {
+                continue;
+            }
+            if (old != null) {
+                ops.add(this.op(OP_REMOVE, old));
+            }
+            ops.add(this.op(OP_ADD, value));
+        }
+        // every current key is persisted now, so equal sizes mean nothing was removed
+        if (persisted.size() != entries.size()) {
+            for (final Iterator<Map.Entry<K, V>> iterator = persisted.entrySet().iterator(); iterator.hasNext();) {
+                final Map.Entry<K, V> entry = iterator.next();
+                if (!entries.containsKey(entry.getKey())) {
+                    ops.add(this.op(OP_REMOVE, entry.getValue()));
+                    iterator.remove();
+                }
+            }
+        }
+        return ops;
+    }
+
+    private JsonObject op(final String type, final V value) {
+        final JsonObject op = new JsonObject();
+        op.addProperty("op", type);
+        op.add("entry", this.serializer.apply(value));
+        return op;
+    }
+
+    private void compact(final List<V> snapshot, final long generation) {
+        try {
+            synchronized (this.snapshotLock) {
+                // a full save since the rotation already wrote newer entries and deleted the rotated journal
+                if (generation < this.writtenGeneration) {
+                    return;
+                }
+                this.writeEntries(snapshot);
+                this.writtenGeneration = generation;
+                Files.deleteIfExists(this.compactingJournal);
+            }
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed to compact journal of {}, it will be merged on the next start", this.snapshot, ex);
+        } finally {
+            this.compacting.set(false);
+        }
+    }
+
+    private void writeEntries(final Iterable<V> entries) throws IOException {
+        final JsonArray array = new JsonArray();
+        for (final V entry : entries) {
+            array.add(this.serializer.apply(entry));
+        }
+        this.writeSnapshot(array);
+    }
+
+    private void writeSnapshot(final JsonArray array) throws IOException {
+        AtomicFiles.atomicWrite(this.snapshot, tmp -> {
+            try (final BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                this.snapshotGson.toJson(array, this.snapshotGson.newJsonWriter(writer));
+            }
+        });
+    }
+
+    private void recover() {
+        if (!Files.exists(this.compactingJournal) && !Files.exists(this.journal)) {
+            return;
+        }
+
+        try {
+            final LinkedHashSet<JsonElement> entries = new LinkedHashSet<>();
+            if (Files.exists(this.snapshot)) {
+                try (final BufferedReader reader = Files.newBufferedReader(this.snapshot, StandardCharsets.UTF_8)) {
+                    JsonParser.parseReader(reader).getAsJsonArray().forEach(entries::add);
+                }
+            }
+            // both journals only hold add and remove operations of whole entries, so replaying a journal
+            // that is already part of the snapshot leaves it unchanged
+            final int replayed = replay(this.compactingJournal, entries) + replay(this.journal, entries);
+
+            final JsonArray array = new JsonArray(entries.size());
+            entries.forEach(array::add);
+            this.writeSnapshot(array);
+            Files.deleteIfExists(this.compactingJournal);
+            Files.deleteIfExists(this.journal);
+            LOGGER.info("Merged {} journaled changes into {}", replayed, this.snapshot);
+        } catch (final IOException | JsonParseException | IllegalStateException ex) {
+            LOGGER.warn("Failed to merge journal into {}, leaving the files untouched", this.snapshot, ex);
+        }
+    }
+
+    private static int replay(final Path journal, final LinkedHashSet<JsonElement> entries) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+
+        int replayed = 0;
+        for (final String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            final JsonObject op;
+            try {
+                op = JsonParser.parseString(line).getAsJsonObject();
+            } catch (final JsonParseException | IllegalStateException ex) {
+                // a torn write can only be at the end of the journal
+                LOGGER.warn("Ignoring incomplete journal entry in {}", journal);
+                break;
+            }
+            final JsonElement entry = op.get("entry");
+            if (OP_ADD.equals(op.get("op").getAsString())) {
+                entries.add(entry);
+            } else {
+                entries.remove(entry);
+            }
+            ++replayed;
+        }
+        return replayed;
+    }
+}
@@ -0,0 +1,167 @@
+package io.papermc.paper.util;
+
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+
+/**
+ * Samples the stack of the server thread while a tick takes longer than
+ * {@link GlobalConfiguration.Watchdog#lagSpikeThreshold} and writes one report per spike into {@code debug/lag-spikes}.
+ * <p>
+ * The sampler is driven by the watchdog thread in place of its regular sleep, and only wakes up often while a tick is
+ * over the threshold. Samples are aggregated into collapsed stacks, which can be fed to the usual flame graph tools.
+ */
+public final class LagSpikeSampler {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+    private static final Path DIRECTORY = Path.of("debug", "lag-spikes");
+    private static final long MIN_REPORT_INTERVAL_MILLIS = 10_000L; // don't flood the disk if the server is constantly behind
+    private static final int TOP_FRAMES = 25;
+
+    private final Object2IntOpenHashMap<List<StackTraceElement>> samples = new Object2IntOpenHashMap<>();
+    private int sampleCount;
+    private long tickStart;
+    private int tickNumber;
+    private long lastReport = Long.MIN_VALUE;
+    private int skippedReports;
+
+    /**
+     * Samples the given thread when the tick that started at {@code tickStart} is over the threshold.
+     *
+     * @return how many milliseconds to wait before polling again
+     */
+    public long poll(final Thread thread, final long tickStart, final int tickNumber, final long now) {
+        final int threshold = GlobalConfiguration.get().watchdog.lagSpikeThreshold;
+        if (tickStart != this.tickStart) {
+            // the previous tick ended, its duration is the time until the next one started
+            this.finishSpike(tickStart - this.tickStart, threshold);
+            this.tickStart = tickStart;
+            this.tickNumber = tickNumber;
+        }
+        if (threshold <= 0) {
+            return Long.MAX_VALUE;
+        }
+
+        final long elapsed = now - tickStart;
+        if (elapsed < threshold) {
+            return threshold - elapsed;
+        }
+
+        this.samples.addTo(Arrays.asList(thread.getStackTrace()), 1);
+        ++this.sampleCount;
+        return Math.max(1, GlobalConfiguration.get().watchdog.lagSpikeSampleInterval);
+    }
+
+    private void finishSpike(final long duration, final int threshold) {
+        if (this.sampleCount == 0) {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        if (now - this.lastReport < MIN_REPORT_INTERVAL_MILLIS) {
+            ++this.skippedReports;
+        } else {
+            this.lastReport = now;
+            final Report report = new Report(this.tickNumber, duration, threshold, this.sampleCount, this.skippedReports, new Object2IntOpenHashMap<>(this.samples));
+            this.skippedReports = 0;
+            MCUtil.scheduleAsyncTask(report::write);
+        }
+        this.samples.clear();
+        this.sampleCount = 0;
+    }
+
+    private record Report(int tickNumber, long duration, int threshold, int sampleCount, int skippedReports, Object2IntMap<List<StackTraceElement>> samples) {
+
+        void write() {
+            final Object2IntOpenHashMap<String> collapsed = new Object2IntOpenHashMap<>();
+            final Object2IntOpenHashMap<String> self = new Object2IntOpenHashMap<>();
+            final Object2IntOpenHashMap<String> total = new Object2IntOpenHashMap<>();
+            final Set<String> seen = new HashSet<>();
+            for (final Object2IntMap.Entry<List<StackTraceElement>> entry : this.samples.object2IntEntrySet()) {
+                final StackTraceElement[] stack = StacktraceDeobfuscator.INSTANCE.deobfuscateStacktrace(entry.getKey().toArray(StackTraceElement[]::new));
+                final int count = entry.getIntValue();
+                if (stack.length == 0) {
+                    continue;
+                }
+
+                final StringBuilder builder = new StringBuilder();
+                for (int i = stack.length - 1; i >= 0; --i) {
+                    if (!builder.isEmpty()) {
+                        builder.append(';');
+                    }
+                    builder.append(stack[i].getClassName()).append('.').append(stack[i].getMethodName());
+                }
+                collapsed.addTo(builder.toString(), count);
+
+                self.addTo(stack[0].toString(), count);
+                seen.clear();
+                for (final StackTraceElement frame : stack) {
+                    if (seen.add(frame.toString())) {
+                        total.addTo(frame.toString(), count);
+                    }
+                }
+            }
+
+            final Path path = DIRECTORY.resolve("spike-" + FORMATTER.format(LocalDateTime.now()) + "-tick-" + this.tickNumber + ".txt");
+            try {
+                Files.createDirectories(DIRECTORY);
+                try (final PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+                    writer.println("Lag spike at tick " + this.tickNumber);
+                    writer.println("Duration: " + this.duration + "ms (threshold " + this.threshold + "ms)");
+                    writer.println("Samples: " + this.sampleCount);
+                    if (this.skippedReports > 0) {
+                        writer.println("Spikes not reported since the previous report: " + this.skippedReports);
+                    }
+                    writer.println();
+                    writer.println("Top frames (self):");
+                    this.printTop(writer, self);
+                    writer.println();
+                    writer.println("Top frames (total):");
+                    this.printTop(writer, total);
+                    writer.println();
+                    writer.println("Collapsed stacks:");
+                    for (final Map.Entry<String, Integer> entry : sorted(collapsed)) {
+                        writer.println(entry.getKey() + " " + entry.getValue());
+                    }
+                }
+                LOGGER.warn("Tick {} took {}ms, wrote lag spike report to {}", this.tickNumber, this.duration, path);
+            } catch (final IOException ex) {
+                LOGGER.warn("Failed to write lag spike report to {}", path, ex);
+            }
+        }
+
+        private void printTop(final PrintWriter writer, final Object2IntMap<String> frames) {
+            final List<Map.Entry<String, Integer>> entries = sorted(frames);
+            for (final Map.Entry<String, Integer> entry : entries.subList(0, Math.min(TOP_FRAMES, entries.size()))) {
+                writer.println(String.format(Locale.ROOT, "%6d %6.2f%% %s", entry.getValue(), 100.0 * entry.getValue() / this.sampleCount, entry.getKey()));
+            }
+        }
+
+        private static List<Map.Entry<String, Integer>> sorted(final Object2IntMap<String> map) {
+            final List<Map.Entry<String, Integer>> entries = new ArrayList<>(map.size());
+            for (final Object2IntMap.Entry<String> entry : map.object2IntEntrySet()) {
+                entries.add(Map.entry(entry.getKey(), entry.getIntValue()));
+            }
+            entries.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.papermc.paper.util;
+
+/**
+ * Keeps the durations of the last few runs of a task. Slots are filled in the order the runs are recorded, not by tick,
+ * so a tick without a run does not leave the value of an older run behind. The average only covers the slots filled so
+ * far.
+ */
+public final class RecentTimes {
+
+    private final long[] times;
+    private int next;
+    private int filled;
+
+    public RecentTimes(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        this.times = new long[size];
+    }
+
+    public void add(final long nanos) {
+        this.times[this.next] = nanos;
+        if (++this.next == this.times.length) {
+            this.next = 0;
+        }
+        if (this.filled < this.times.length) {
+            ++this.filled;
+        }
+    }
+
+    public int size() {
+        return this.filled;
+    }
+
+    /**
+     * Returns the average of the recorded durations in milliseconds, or 0 if none were recorded.
+     */
+    public double getAverageMillis() {
+        if (this.filled == 0) {
+            return 0.0;
+        }
+        long total = 0L;
+        for (int i = 0; i < this.filled; ++i) {
+            total += this.times[i];
+        }
+        return ((double)total / (double)this.filled) * 1.0E-6;
+    }
+}
@@ -0,0 +1,99 @@
+package io.papermc.paper.util.concurrent;
+
+import ca.spottedleaf.concurrentutil.executor.thread.PrioritisedThreadPool;
+import ca.spottedleaf.concurrentutil.util.Priority;
+import ca.spottedleaf.moonrise.common.util.MoonriseCommon;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs a task for every index of a range on the worker pool, with the calling thread helping out.
+ * <p>
+ * The range is split into blocks which the calling thread and the workers claim one after another. The call returns
+ * once every block has been processed, which the calling thread can do on its own if the workers are busy: workers that
+ * start late find nothing left to claim and return immediately. Blocks are claimed in any order, so the task must not
+ * depend on the order indices are processed in.
+ */
+public final class ParallelRange {
+
+    private static final PrioritisedThreadPool.ExecutorGroup.ThreadPoolExecutor EXECUTOR = MoonriseCommon.WORKER_POOL
+        .createExecutorGroup(MoonriseCommon.SERVER_DIVISION, 0)
+        .createExecutor(-1, MoonriseCommon.WORKER_QUEUE_HOLD_TIME, 0);
+    private static final int MAX_HELPERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private ParallelRange() {
+    }
+
+    /**
+     * Calls {@code task} for every index in {@code [0, count)} and waits for all of them to complete.
+     *
+     * @throws RuntimeException wrapping the first throwable thrown by the task, after all other blocks completed
+     */
+    public static void forEach(final int count, final int blockSize, final IntConsumer task) {
+        final int blocks = (count + blockSize - 1) / blockSize;
+        if (blocks <= 1) {
+            for (int i = 0; i < count; ++i) {
+                task.accept(i);
+            }
+            return;
+        }
+
+        final Job job = new Job(count, blockSize, blocks, task, Thread.currentThread());
+        for (int i = 0, helpers = Math.min(blocks - 1, MAX_HELPERS); i < helpers; ++i) {
+            EXECUTOR.queueTask(job::work, Priority.HIGHER);
+        }
+        job.work();
+        job.await();
+
+        if (job.failure != null) {
+            throw new RuntimeException("Failed to run parallel task", job.failure);
+        }
+    }
+
+    private static final class Job {
+
+        private final int count;
+        private final int blockSize;
+        private final int blocks;
+        private final IntConsumer task;
+        private final Thread owner;
+        private final AtomicInteger nextBlock = new AtomicInteger();
+        private final AtomicInteger completedBlocks = new AtomicInteger();
+        private volatile Throwable failure;
+
+        private Job(final int count, final int blockSize, final int blocks, final IntConsumer task, final Thread owner) {
+            this.count = count;
+            this.blockSize = blockSize;
+            this.blocks = blocks;
+            this.task = task;
+            this.owner = owner;
+        }
+
+        private void work() {
+            int block;
+            while ((block = this.nextBlock.getAndIncrement()) < this.blocks) {
+                try {
+                    for (int i = block * this.blockSize, end = Math.min(this.count, i + this.blockSize); i < end; ++i) {
+                        this.task.accept(i);
+                    }
+                } catch (final Throwable throwable) {
+                    if (this.failure == null) {
+                        this.failure = throwable;
+                    }
+                } finally {
+                    if (this.completedBlocks.incrementAndGet() == this.blocks) {
+                        LockSupport.unpark(this.owner);
+                    }
+                }
+            }
+        }
+
+        private void await() {
+            // only blocks already claimed by a worker are left, they are short
+            while (this.completedBlocks.get() < this.blocks) {
+                LockSupport.parkNanos(this, 10_000L);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.papermc.paper.util.simd;
+
+import com.mojang.logging.LogUtils;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Bit masks over the 16x16 columns of a chunk layer, as four longs holding the bit {@code x | (z << 4)}.
+ * <p>
+ * Building a layer from per column values is done with the JDK Vector API when the {@code jdk.incubator.vector}
+ * module is present, i.e. when the server is started with {@code --add-modules=jdk.incubator.vector}, and with a
+ * scalar loop otherwise. The vector implementation is compiled in its own source set, as incubator modules are not
+ * part of the API the main source set is compiled against, and is only loaded reflectively.
+ */
+public abstract class LayerMasks {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String VECTOR_IMPLEMENTATION = "io.papermc.paper.util.simd.VectorLayerMasks";
+
+    public static final int LAYER_SIZE = 16 * 16;
+    public static final int LONGS_PER_LAYER = LAYER_SIZE / Long.SIZE;
+
+    private static final long COLUMN_X_MIN = 0x0001000100010001L;
+    private static final long COLUMN_X_MAX = 0x8000800080008000L;
+
+    private static final LayerMasks SCALAR = new Scalar();
+    private static final @Nullable LayerMasks VECTORISED = createVectorised();
+    public static final LayerMasks INSTANCE = VECTORISED == null || Boolean.getBoolean("Paper.disableVectorApi") ? SCALAR : VECTORISED;
+
+    private static @Nullable LayerMasks createVectorised() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (LayerMasks)Class.forName(VECTOR_IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (final Throwable throwable) {
+            LOGGER.warn("Failed to initialise the vector API layer masks, falling back to the scalar implementation", throwable);
+            return null;
+        }
+    }
+
+    public static LayerMasks scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * Returns the Vector API implementation, or {@code null} if the {@code jdk.incubator.vector} module is not present.
+     */
+    public static @Nullable LayerMasks vectorised() {
+        return VECTORISED;
+    }
+
+    /**
+     * Sets the bit of every column whose value in {@code values} is lower than {@code y}.
+     *
+     * @param values {@link #LAYER_SIZE} values, indexed by {@code x | (z << 4)}
+     * @param out    {@link #LONGS_PER_LAYER} longs receiving the layer
+     */
+    public abstract void lessThan(final int[] values, final int y, final long[] out);
+
+    /**
+     * Sets the bit of every column set in {@code layer} unless its four horizontal neighbours are set in {@code layer}
+     * and the column is set in {@code below}. Columns at the edge of the layer have neighbours outside of it, which
+     * are never considered set.
+     */
+    public static void exposed(final long[] layer, final long[] below, final long[] out) {
+        for (int i = 0; i < LONGS_PER_LAYER; ++i) {
+            final long set = layer[i];
+            final long negativeX = (set << 1) & ~COLUMN_X_MIN;
+            final long positiveX = (set >>> 1) & ~COLUMN_X_MAX;
+            final long negativeZ = (set << 16) | (i > 0 ? layer[i - 1] >>> 48 : 0L);
+            final long positiveZ = (set >>> 16) | (i < LONGS_PER_LAYER - 1 ? layer[i + 1] << 48 : 0L);
+            out[i] = set & ~(negativeX & positiveX & negativeZ & positiveZ & below[i]);
+        }
+    }
+
+    private static final class Scalar extends LayerMasks {
+
+        @Override
+        public void lessThan(final int[] values, final int y, final long[] out) {
+            for (int i = 0; i < LONGS_PER_LAYER; ++i) {
+                long bits = 0L;
+                for (int bit = 0, base = i << 6; bit < Long.SIZE; ++bit) {
+                    if (values[base | bit] < y) {
+                        bits |= 1L << bit;
+                    }
+                }
+                out[i] = bits;
+            }
+        }
+    }
+}
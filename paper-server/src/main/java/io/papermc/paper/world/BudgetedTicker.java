@@ -0,0 +1,176 @@
+package io.papermc.paper.world;
+
+import ca.spottedleaf.moonrise.common.list.ReferenceList;
+import ca.spottedleaf.moonrise.common.misc.NearbyPlayers;
+import ca.spottedleaf.moonrise.patches.chunk_system.level.ChunkSystemServerLevel;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+
+/**
+ * Limits the time spent ticking a group of objects (entities or block entities) in a single tick.
+ * <p>
+ * Once the budget of a tick is spent, the remaining objects are deferred unless they are prioritized (e.g. close
+ * to a player). Objects deferred in one tick are always ticked in the next one, and the expected cost of ticking them is
+ * reserved from that tick's budget up front, so the objects that ticked before the budget ran out are the ones that
+ * yield next. This rotates the deferred range through the whole list instead of starving its tail.
+ */
+public final class BudgetedTicker<T> {
+
+    private static final int CHECK_INTERVAL = 8; // System.nanoTime() is not free, only check the clock every few objects
+
+    private final LongSupplier clock;
+    private ReferenceOpenHashSet<T> deferred = new ReferenceOpenHashSet<>();
+    private ReferenceOpenHashSet<T> nextDeferred = new ReferenceOpenHashSet<>();
+    private boolean active;
+    private boolean overBudget;
+    private long start;
+    private long deadline;
+    private int ticked;
+    private double averageCost;
+    private int deferredLastTick;
+    private long deferredTotal;
+
+    public BudgetedTicker() {
+        this(System::nanoTime);
+    }
+
+    BudgetedTicker(final LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Starts a tick with the given budget, a budget of zero or less disables deferral.
+     */
+    public void start(final int budgetMillis) {
+        final ReferenceOpenHashSet<T> swap = this.deferred;
+        swap.clear();
+        this.deferred = this.nextDeferred;
+        this.nextDeferred = swap;
+
+        this.deferredLastTick = this.deferred.size();
+        this.deferredTotal += this.deferredLastTick;
+        this.active = budgetMillis > 0;
+        if (!this.active) {
+            this.deferred.clear();
+            return;
+        }
+
+        this.overBudget = false;
+        this.ticked = 0;
+        this.start = this.clock.getAsLong();
+        final long reserved = (long)(this.averageCost * this.deferred.size());
+        this.deadline = this.start + budgetMillis * 1_000_000L - reserved;
+    }
+
+    /**
+     * Returns whether the given object should be ticked now, otherwise it is deferred to the next tick.
+     */
+    public boolean shouldTick(final T object, final Predicate<? super T> priority) {
+        if (!this.active) {
+            return true;
+        }
+        if (this.deferred.remove(object)) {
+            ++this.ticked;
+            return true;
+        }
+        if (!this.overBudget && (this.ticked % CHECK_INTERVAL != 0 || this.clock.getAsLong() < this.deadline)) {
+            ++this.ticked;
+            return true;
+        }
+        this.overBudget = true;
+        if (priority.test(object)) {
+            ++this.ticked;
+            return true;
+        }
+        this.nextDeferred.add(object);
+        return false;
+    }
+
+    public void finish() {
+        if (!this.active) {
+            return;
+        }
+        this.active = false;
+        if (this.ticked != 0) {
+            final double cost = (double)(this.clock.getAsLong() - this.start) / (double)this.ticked;
+            this.averageCost = this.averageCost == 0.0 ? cost : this.averageCost * 0.9 + cost * 0.1;
+        }
+    }
+
+    /**
+     * Returns how many objects were deferred in the last completed tick.
+     */
+    public int getDeferredLastTick() {
+        return this.deferredLastTick;
+    }
+
+    /**
+     * Returns how many times an object was deferred since the ticker was created.
+     */
+    public long getDeferredTotal() {
+        return this.deferredTotal;
+    }
+
+    /**
+     * Returns whether a non-spectator player is within the given horizontal radius of the given position.
+     * <p>
+     * Only the players tracked near the position's chunk are checked, so this does not scale with the number of players
+     * in the level.
+     */
+    public static boolean isNearPlayer(final Level level, final double x, final double z, final int radius) {
+        if (!(level instanceof ServerLevel serverLevel) || radius > NearbyPlayers.GENERAL_AREA_VIEW_DISTANCE_BLOCKS) {
+            return isNearPlayer(level.players(), x, z, radius);
+        }
+
+        final NearbyPlayers.NearbyMapType type;
+        if (radius <= NearbyPlayers.GENERAL_REALLY_SMALL_AREA_VIEW_DISTANCE_BLOCKS) {
+            type = NearbyPlayers.NearbyMapType.GENERAL_REALLY_SMALL;
+        } else if (radius <= NearbyPlayers.GENERAL_SMALL_AREA_VIEW_DISTANCE_BLOCKS) {
+            type = NearbyPlayers.NearbyMapType.GENERAL_SMALL;
+        } else {
+            type = NearbyPlayers.NearbyMapType.GENERAL;
+        }
+
+        final ReferenceList<ServerPlayer> players = ((ChunkSystemServerLevel)serverLevel).moonrise$getNearbyPlayers().getPlayersByBlock(
+            Mth.floor(x), Mth.floor(z), type
+        );
+        if (players == null) {
+            return false;
+        }
+
+        final double radiusSquared = (double)radius * (double)radius;
+        final ServerPlayer[] raw = players.getRawDataUnchecked();
+        for (int i = 0, len = players.size(); i < len; ++i) {
+            if (isNear(raw[i], x, z, radiusSquared)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNearPlayer(final List<? extends Player> players, final double x, final double z, final int radius) {
+        final double radiusSquared = (double)radius * (double)radius;
+        for (int i = 0, len = players.size(); i < len; ++i) {
+            if (isNear(players.get(i), x, z, radiusSquared)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNear(final Player player, final double x, final double z, final double radiusSquared) {
+        if (player.isSpectator()) {
+            return false;
+        }
+        final double dx = player.getX() - x;
+        final double dz = player.getZ() - z;
+        return dx * dx + dz * dz <= radiusSquared;
+    }
+}
@@ -0,0 +1,112 @@
+package io.papermc.paper.world;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import java.util.function.IntSupplier;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+/**
+ * Per-world cache of chunk packets, so an unchanged chunk is only serialized once no matter how many players it is
+ * sent to.
+ * <p>
+ * Entries are keyed by chunk position and do not reference the chunk itself. They are dropped when a block or light
+ * change is reported for their chunk, when the chunk is refreshed and when it is unloaded. Packets with and without
+ * Anti-Xray obfuscation are cached separately. To bound the staleness of changes that do not go through either
+ * notification (like plugins editing biomes), entries also expire after a while.
+ */
+public final class ChunkPacketCache {
+
+    static final int MAX_AGE_TICKS = 20 * 60;
+
+    private final IntSupplier currentTick;
+    private final PacketFactory packetFactory;
+    private final Long2ObjectLinkedOpenHashMap<Entry> entries = new Long2ObjectLinkedOpenHashMap<>();
+    private long hits;
+    private long misses;
+
+    public ChunkPacketCache(final ServerLevel level) {
+        this(
+            () -> level.getServer().getTickCount(),
+            (chunk, modifyBlocks) -> new ClientboundLevelChunkWithLightPacket(chunk, level.getLightEngine(), null, null, modifyBlocks)
+        );
+    }
+
+    ChunkPacketCache(final IntSupplier currentTick, final PacketFactory packetFactory) {
+        this.currentTick = currentTick;
+        this.packetFactory = packetFactory;
+    }
+
+    public ClientboundLevelChunkWithLightPacket getOrCreate(final LevelChunk chunk, final boolean modifyBlocks) {
+        final GlobalConfiguration.ChunkLoadingAdvanced config = GlobalConfiguration.get().chunkLoadingAdvanced;
+        if (!config.sharedChunkPacketCache) {
+            if (!this.entries.isEmpty()) {
+                this.entries.clear();
+            }
+            return this.packetFactory.create(chunk, modifyBlocks);
+        }
+        return this.getOrCreate(chunk, modifyBlocks, Math.max(1, config.sharedChunkPacketCacheSize));
+    }
+
+    ClientboundLevelChunkWithLightPacket getOrCreate(final LevelChunk chunk, final boolean modifyBlocks, final int maxEntries) {
+        final long key = chunk.getPos().toLong();
+        final int currentTick = this.currentTick.getAsInt();
+        Entry entry = this.entries.getAndMoveToLast(key);
+        if (entry != null && currentTick - entry.created > MAX_AGE_TICKS) {
+            this.entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            entry = new Entry(currentTick);
+            this.entries.putAndMoveToLast(key, entry);
+            while (this.entries.size() > maxEntries) {
+                this.entries.removeFirst();
+            }
+        }
+
+        final int index = modifyBlocks ? 1 : 0;
+        ClientboundLevelChunkWithLightPacket packet = entry.packets[index];
+        if (packet == null) {
+            ++this.misses;
+            packet = entry.packets[index] = this.packetFactory.create(chunk, modifyBlocks);
+        } else {
+            ++this.hits;
+        }
+        return packet;
+    }
+
+    public void invalidate(final long chunkKey) {
+        if (!this.entries.isEmpty()) {
+            this.entries.remove(chunkKey);
+        }
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    @FunctionalInterface
+    interface PacketFactory {
+
+        ClientboundLevelChunkWithLightPacket create(LevelChunk chunk, boolean modifyBlocks);
+    }
+
+    private static final class Entry {
+
+        private final int created;
+        private final ClientboundLevelChunkWithLightPacket[] packets = new ClientboundLevelChunkWithLightPacket[2];
+
+        private Entry(final int created) {
+            this.created = created;
+        }
+    }
+}
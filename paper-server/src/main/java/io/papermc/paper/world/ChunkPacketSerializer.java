@@ -0,0 +1,42 @@
+package io.papermc.paper.world;
+
+import ca.spottedleaf.concurrentutil.executor.thread.PrioritisedThreadPool;
+import ca.spottedleaf.concurrentutil.util.Priority;
+import ca.spottedleaf.moonrise.common.util.MoonriseCommon;
+import com.mojang.logging.LogUtils;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkPacketData;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import org.slf4j.Logger;
+
+/**
+ * Writes the block and block entity data of chunk packets on the worker pool.
+ * <p>
+ * The tick thread only gathers the heightmaps and light and snapshots the block entity list, the sections (palettes,
+ * block states and biomes) and the block entity update tags are written by the worker. Until then the packet is not
+ * ready, the connection holds it and everything queued after it back, so packets still reach the client in the order
+ * they were sent. Block changes made in the meantime may already be part of the chunk, the block updates queued after
+ * it then resend the same state.
+ */
+public final class ChunkPacketSerializer {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final PrioritisedThreadPool.ExecutorGroup.ThreadPoolExecutor EXECUTOR = MoonriseCommon.WORKER_POOL
+        .createExecutorGroup(MoonriseCommon.SERVER_DIVISION, 0)
+        .createExecutor(-1, MoonriseCommon.WORKER_QUEUE_HOLD_TIME, 0);
+
+    private ChunkPacketSerializer() {
+    }
+
+    public static void submit(final ClientboundLevelChunkWithLightPacket packet, final ClientboundLevelChunkPacketData chunkData) {
+        EXECUTOR.queueTask(() -> {
+            try {
+                chunkData.writeDeferred();
+            } catch (final Throwable throwable) {
+                LOGGER.error("Failed to serialize chunk packet", throwable);
+            } finally {
+                // never leave the connection waiting on this packet
+                packet.setReady(true);
+            }
+        }, Priority.HIGHER);
+    }
+}
@@ -0,0 +1,229 @@
+package io.papermc.paper.world;
+
+import ca.spottedleaf.concurrentutil.map.ConcurrentLong2ReferenceChainedHashTable;
+import ca.spottedleaf.concurrentutil.util.Priority;
+import ca.spottedleaf.moonrise.common.util.CoordinateUtils;
+import ca.spottedleaf.moonrise.common.util.WorldUtil;
+import ca.spottedleaf.moonrise.patches.chunk_system.level.ChunkSystemLevel;
+import ca.spottedleaf.moonrise.patches.chunk_system.level.ChunkSystemServerLevel;
+import ca.spottedleaf.moonrise.patches.chunk_system.player.RegionizedPlayerChunkLoader;
+import ca.spottedleaf.moonrise.patches.chunk_system.scheduling.ChunkHolderManager;
+import ca.spottedleaf.moonrise.patches.chunk_system.scheduling.NewChunkHolder;
+import ca.spottedleaf.moonrise.patches.starlight.light.StarLightEngine;
+import ca.spottedleaf.moonrise.patches.starlight.light.StarLightInterface;
+import ca.spottedleaf.moonrise.patches.starlight.light.StarLightLightingProvider;
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import net.minecraft.server.level.ChunkLevel;
+import net.minecraft.server.level.FullChunkStatus;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.Ticket;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import org.slf4j.Logger;
+
+/**
+ * Defers lighting the ring of chunks around the players' views: chunks which are loaded but not ticking, outside of
+ * every player's send distance, and only kept loaded by player tickets or as neighbours of other chunks. Ticking
+ * chunks and chunks with any other ticket, like spawn chunks or chunks kept loaded by plugins, are always lit right
+ * away.
+ * <p>
+ * A deferred chunk reaches the light status without being lit and stays marked as not light correct, so the light
+ * engine ignores it like any other unlit chunk and it is relit when loaded again if it unloads first. It is lit once it
+ * starts ticking, is about to be sent to a player or its light is queried, and otherwise in the background while the
+ * server has time left in a tick. All lighting is queued to the server light queue, so it never runs concurrently with
+ * other light work around the chunk.
+ */
+public final class LazyChunkLighting {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final ServerLevel level;
+    // chunk key -> whether the chunk has been queued to be lit
+    private final ConcurrentLong2ReferenceChainedHashTable<AtomicBoolean> deferred = new ConcurrentLong2ReferenceChainedHashTable<>();
+    // chunk x, chunk z and send distance of every player in the world, updated every tick
+    private volatile int[] players = new int[0];
+    private final AtomicInteger backgroundInFlight = new AtomicInteger();
+
+    private final AtomicLong deferredChunks = new AtomicLong();
+    private final AtomicLong litOnDemand = new AtomicLong();
+    private final AtomicLong litInBackground = new AtomicLong();
+
+    public LazyChunkLighting(final ServerLevel level) {
+        this.level = level;
+    }
+
+    public static boolean isEnabled() {
+        return GlobalConfiguration.get().chunkSystem.lazyLighting;
+    }
+
+    private StarLightInterface getLightEngine() {
+        return ((StarLightLightingProvider)this.level.getChunkSource().getLightEngine()).starlight$getLightEngine();
+    }
+
+    /**
+     * Returns whether lighting the specified chunk should be deferred. Called from the light task of the chunk.
+     */
+    public boolean shouldDefer(final int chunkX, final int chunkZ) {
+        if (!isEnabled()) {
+            return false;
+        }
+        final ChunkHolderManager chunkHolderManager = ((ChunkSystemServerLevel)this.level).moonrise$getChunkTaskScheduler().chunkHolderManager;
+        final NewChunkHolder holder = chunkHolderManager.getChunkHolder(chunkX, chunkZ);
+        return holder != null && shouldDefer(chunkX, chunkZ, holder.getTicketLevel(), chunkHolderManager.getTicketsAt(chunkX, chunkZ), this.players);
+    }
+
+    /**
+     * Returns whether a chunk with the specified ticket level and tickets is part of the ring around the players' views.
+     *
+     * @param players chunk x, chunk z and send distance of every player in the world
+     */
+    static boolean shouldDefer(final int chunkX, final int chunkZ, final int ticketLevel, final List<Ticket> tickets, final int[] players) {
+        // ticking chunks need their light right away, they are lit on demand if they start ticking later
+        if (ChunkLevel.fullStatus(ticketLevel) != FullChunkStatus.FULL) {
+            return false;
+        }
+        for (int i = 0; i < players.length; i += 3) {
+            if (Math.max(Math.abs(chunkX - players[i]), Math.abs(chunkZ - players[i + 1])) <= players[i + 2]) {
+                return false;
+            }
+        }
+        // a chunk without tickets of its own is only loaded as a neighbour of other chunks
+        for (final Ticket ticket : tickets) {
+            final TicketType type = ticket.getType();
+            if (type != RegionizedPlayerChunkLoader.PLAYER_TICKET && type != RegionizedPlayerChunkLoader.PLAYER_TICKET_DELAYED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void markDeferred(final int chunkX, final int chunkZ) {
+        this.deferred.put(CoordinateUtils.getChunkKey(chunkX, chunkZ), new AtomicBoolean());
+        this.deferredChunks.incrementAndGet();
+    }
+
+    /**
+     * Notifies that the specified chunk was lit by its light task, so a deferral from an earlier load is stale.
+     */
+    public void markLit(final int chunkX, final int chunkZ) {
+        if (!this.deferred.isEmpty()) {
+            this.deferred.remove(CoordinateUtils.getChunkKey(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Queues the specified chunk to be lit with a high priority if its lighting was deferred.
+     *
+     * @return {@code true} if the chunk is not waiting to be lit
+     */
+    public boolean requestLight(final int chunkX, final int chunkZ) {
+        if (this.deferred.isEmpty()) {
+            return true;
+        }
+        final AtomicBoolean queued = this.deferred.get(CoordinateUtils.getChunkKey(chunkX, chunkZ));
+        if (queued == null) {
+            return true;
+        }
+        if (queued.get() || !queued.compareAndSet(false, true)) {
+            // possibly queued by the background pass
+            this.getLightEngine().getServerLightQueue().raisePriority(chunkX, chunkZ, Priority.HIGHER);
+            return false;
+        }
+        this.queueLight(chunkX, chunkZ, Priority.HIGHER, false);
+        return false;
+    }
+
+    private void queueLight(final int chunkX, final int chunkZ, final Priority priority, final boolean background) {
+        final StarLightInterface lightEngine = this.getLightEngine();
+        lightEngine.getServerLightQueue().queueChunkLightTask(
+            new ChunkPos(chunkX, chunkZ), () -> this.light(lightEngine, chunkX, chunkZ, background), priority
+        );
+    }
+
+    private boolean light(final StarLightInterface lightEngine, final int chunkX, final int chunkZ, final boolean background) {
+        // executed on light thread
+        try {
+            final long key = CoordinateUtils.getChunkKey(chunkX, chunkZ);
+            if (this.deferred.get(key) == null) {
+                // lit by a light task after being loaded again
+                return false;
+            }
+            final ChunkAccess chunk = ((ChunkSystemLevel)this.level).moonrise$getAnyChunkIfLoaded(chunkX, chunkZ);
+            if (chunk == null) {
+                // unloaded, it will be lit on its next load
+                this.deferred.remove(key);
+                return false;
+            }
+
+            try {
+                if (chunk.isLightCorrect()) {
+                    return false;
+                }
+                lightEngine.lightChunk(chunk, StarLightEngine.getEmptySectionsForChunk(chunk));
+                chunk.setLightCorrect(true);
+            } catch (final Throwable thr) {
+                // leave it unlit, it is relit on its next load
+                LOGGER.error("Failed to light deferred chunk {} in world '{}'", chunk.getPos(), WorldUtil.getWorldName(this.level), thr);
+                return false;
+            } finally {
+                this.deferred.remove(key);
+            }
+            (background ? this.litInBackground : this.litOnDemand).incrementAndGet();
+            // the whole chunk was lit, so queued block changes in it are handled
+            return true;
+        } finally {
+            if (background) {
+                this.backgroundInFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Updates the player positions and queues deferred chunks to be lit in the background if the tick has time left.
+     */
+    public void tick(final BooleanSupplier hasTimeLeft) {
+        final List<ServerPlayer> levelPlayers = this.level.players();
+        final int[] players = new int[levelPlayers.size() * 3];
+        for (int i = 0, len = levelPlayers.size(); i < len; ++i) {
+            final ServerPlayer player = levelPlayers.get(i);
+            final ChunkPos pos = player.chunkPosition();
+            final int sendDistance = RegionizedPlayerChunkLoader.getAPISendViewDistance(player);
+            players[i * 3] = pos.x;
+            players[i * 3 + 1] = pos.z;
+            players[i * 3 + 2] = sendDistance < 0 ? ((ChunkSystemServerLevel)this.level).moonrise$getPlayerChunkLoader().getAPISendViewDistance() : sendDistance;
+        }
+        this.players = players;
+
+        if (this.deferred.isEmpty() || !hasTimeLeft.getAsBoolean()) {
+            return;
+        }
+
+        final int maxInFlight = Math.max(0, GlobalConfiguration.get().chunkSystem.lazyLightingBackgroundChunks);
+        for (final Iterator<ConcurrentLong2ReferenceChainedHashTable.TableEntry<AtomicBoolean>> iterator = this.deferred.entryIterator();
+             iterator.hasNext() && this.backgroundInFlight.get() < maxInFlight;) {
+            final ConcurrentLong2ReferenceChainedHashTable.TableEntry<AtomicBoolean> entry = iterator.next();
+            final long key = entry.getKey();
+            if (entry.getValue().get() || !entry.getValue().compareAndSet(false, true)) {
+                continue;
+            }
+            this.backgroundInFlight.incrementAndGet();
+            this.queueLight(CoordinateUtils.getChunkX(key), CoordinateUtils.getChunkZ(key), Priority.LOWEST, true);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(this.deferred.size(), this.deferredChunks.get(), this.litOnDemand.get(), this.litInBackground.get());
+    }
+
+    public record Stats(int pending, long deferred, long litOnDemand, long litInBackground) {
+    }
+}
@@ -0,0 +1,388 @@
+package io.papermc.paper.world;
+
+import ca.spottedleaf.dataconverter.minecraft.MCDataConverter;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.MCDataType;
+import ca.spottedleaf.dataconverter.minecraft.datatypes.MCTypeRegistry;
+import ca.spottedleaf.dataconverter.minecraft.util.Version;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mojang.datafixers.DataFixer;
+import com.mojang.logging.LogUtils;
+import com.mojang.serialization.MapCodec;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import joptsimple.OptionSet;
+import net.minecraft.DefaultUncaughtExceptionHandlerWithName;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.storage.ChunkStorage;
+import net.minecraft.world.level.chunk.storage.RegionFile;
+import net.minecraft.world.level.chunk.storage.RegionFileStorage;
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
+import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import net.minecraft.world.level.dimension.LevelStem;
+import net.minecraft.world.level.storage.DimensionDataStorage;
+import net.minecraft.world.level.storage.LevelStorageSource;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Upgrades the chunk, entity and POI data of a world with the data converter, one region file per worker thread.
+ * <p>
+ * Each region file is read, converted and written back by a single thread, so region files never need locking. Changed
+ * chunks are written with the configured region file compression. With recompression every chunk is rewritten into a
+ * fresh region file which replaces the old one once complete, which also compacts the file. Finished region files are
+ * recorded in the dimension folder, so an interrupted upgrade resumes with the region files it had not finished. A dry
+ * run only counts the chunks that would be upgraded, per data version.
+ */
+public final class ThreadedWorldUpgrader {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    private static final String PROGRESS_FILE = "paper_upgrade_progress.txt";
+    private static final String TEMP_SUFFIX = ".paper-upgrade";
+
+    private final LevelStorageSource.LevelStorageAccess levelStorage;
+    private final ResourceKey<LevelStem> levelStem;
+    private final ResourceKey<Level> dimension;
+    private final Path dimensionPath;
+    private final DataFixer dataFixer;
+    private final RegistryAccess registryAccess;
+    private final Optional<ResourceKey<MapCodec<? extends ChunkGenerator>>> generatorKey;
+    private final int threads;
+    private final boolean eraseCache;
+    private final boolean recompress;
+    private final boolean dryRun;
+
+    private @Nullable DimensionDataStorage overworldDataStorage;
+    private @Nullable BufferedWriter progressWriter;
+
+    private final AtomicInteger regionsDone = new AtomicInteger();
+    private final LongAdder chunksScanned = new LongAdder();
+    private final LongAdder chunksUpgraded = new LongAdder();
+    private final LongAdder chunksWritten = new LongAdder();
+    private final LongAdder chunksFailed = new LongAdder();
+    // data version -> chunks, for dry runs
+    private final Map<Integer, LongAdder> versions = new ConcurrentSkipListMap<>();
+
+    private ThreadedWorldUpgrader(final LevelStorageSource.LevelStorageAccess levelStorage, final DataFixer dataFixer,
+                                  final RegistryAccess registryAccess, final int threads, final boolean eraseCache,
+                                  final boolean recompress, final boolean dryRun) {
+        this.levelStorage = levelStorage;
+        this.levelStem = levelStorage.dimensionType;
+        this.dimension = Registries.levelStemToLevel(this.levelStem);
+        this.dimensionPath = levelStorage.getDimensionPath(this.dimension);
+        this.dataFixer = dataFixer;
+        this.registryAccess = registryAccess;
+        this.generatorKey = registryAccess.lookupOrThrow(Registries.LEVEL_STEM).getValueOrThrow(this.levelStem).generator().getTypeNameForDataFixer();
+        this.threads = threads;
+        this.eraseCache = eraseCache;
+        this.recompress = recompress;
+        this.dryRun = dryRun;
+    }
+
+    public static void forceUpgrade(final LevelStorageSource.LevelStorageAccess levelStorage, final DataFixer dataFixer, final boolean eraseCache,
+                                    final RegistryAccess registryAccess, final boolean recreateRegionFiles, final OptionSet options) {
+        final int threads = options.has("forceUpgradeThreads") ? (Integer)options.valueOf("forceUpgradeThreads") : Runtime.getRuntime().availableProcessors();
+        final ThreadedWorldUpgrader upgrader = new ThreadedWorldUpgrader(
+            levelStorage, dataFixer, registryAccess, Math.max(1, threads), eraseCache,
+            recreateRegionFiles || options.has("forceUpgradeRecompress"), options.has("forceUpgradeDryRun")
+        );
+        try {
+            upgrader.run();
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to upgrade world '" + levelStorage.getLevelId() + "'", ex);
+        }
+    }
+
+    private void run() throws IOException {
+        final List<RegionTask> tasks = new ArrayList<>();
+        final Set<String> finished = this.dryRun ? Set.of() : this.readProgress();
+        this.collect(tasks, finished, "region", MCTypeRegistry.CHUNK);
+        this.collect(tasks, finished, "entities", MCTypeRegistry.ENTITY_CHUNK);
+        this.collect(tasks, finished, "poi", MCTypeRegistry.POI_CHUNK);
+
+        LOGGER.info(
+            "{} world '{}' ({}) with {} threads: {} region files to process, {} already finished{}",
+            this.dryRun ? "Scanning" : "Upgrading", this.levelStorage.getLevelId(), this.levelStem.location(), this.threads,
+            tasks.size(), finished.size(), this.recompress && !this.dryRun ? ", recompressing to " + GlobalConfiguration.get().unsupportedSettings.compressionFormat : ""
+        );
+        if (tasks.isEmpty()) {
+            this.deleteProgress();
+            return;
+        }
+
+        if (!this.dryRun) {
+            this.progressWriter = Files.newBufferedWriter(
+                this.dimensionPath.resolve(PROGRESS_FILE), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND
+            );
+        }
+        final long start = System.nanoTime();
+        final UpgradeChunkStorage chunkStorage = new UpgradeChunkStorage(
+            new RegionStorageInfo(this.levelStorage.getLevelId(), this.dimension, "chunk"), this.dimensionPath.resolve("region"), this.dataFixer, false
+        );
+        final ExecutorService executor = Executors.newFixedThreadPool(
+            this.threads, new ThreadFactoryBuilder().setNameFormat("World upgrader #%d").setDaemon(true).setUncaughtExceptionHandler(new DefaultUncaughtExceptionHandlerWithName(LOGGER)).build()
+        );
+        try {
+            for (final RegionTask task : tasks) {
+                executor.execute(() -> this.process(task, chunkStorage));
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(5L, TimeUnit.SECONDS)) {
+                this.logProgress(tasks.size(), start);
+            }
+        } catch (final InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while upgrading world", ex);
+        } finally {
+            chunkStorage.close();
+            if (this.progressWriter != null) {
+                this.progressWriter.close();
+            }
+            if (this.overworldDataStorage != null) {
+                this.overworldDataStorage.close();
+            }
+        }
+
+        final double seconds = (double)(System.nanoTime() - start) / 1.0E9;
+        LOGGER.info(
+            "{} world '{}' in {}s: {} chunks scanned, {} {}, {} written, {} failed",
+            this.dryRun ? "Scanned" : "Upgraded", this.levelStorage.getLevelId(), String.format(Locale.ROOT, "%.1f", seconds),
+            this.chunksScanned.sum(), this.chunksUpgraded.sum(), this.dryRun ? "need upgrading" : "upgraded", this.chunksWritten.sum(), this.chunksFailed.sum()
+        );
+        if (this.dryRun) {
+            this.versions.forEach((final Integer version, final LongAdder count) -> {
+                LOGGER.info("  data version {}: {} chunks", version, count.sum());
+            });
+        } else if (this.chunksFailed.sum() == 0L) {
+            this.deleteProgress();
+        } else {
+            LOGGER.warn("Some chunks failed to upgrade, their region files will be processed again by the next upgrade");
+        }
+    }
+
+    private void logProgress(final int total, final long start) {
+        final int done = this.regionsDone.get();
+        final double seconds = (double)(System.nanoTime() - start) / 1.0E9;
+        final double rate = (double)this.chunksScanned.sum() / Math.max(seconds, 1.0E-3);
+        LOGGER.info("World upgrade: {}/{} region files ({}%), {} chunks/s", done, total, (done * 100) / total, (long)rate);
+    }
+
+    private void collect(final List<RegionTask> tasks, final Set<String> finished, final String folder, final MCDataType type) throws IOException {
+        final Path dir = this.dimensionPath.resolve(folder);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (final Stream<Path> files = Files.list(dir)) {
+            files.forEach((final Path file) -> {
+                final String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // left behind by an interrupted recompression, the original is still intact
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (final IOException ex) {
+                        LOGGER.warn("Failed to delete {}", file, ex);
+                    }
+                    return;
+                }
+                final ChunkPos region = RegionFileStorage.getRegionFileCoordinates(file);
+                if (region != null && !finished.contains(folder + "/" + name)) {
+                    tasks.add(new RegionTask(folder, file, region, type));
+                }
+            });
+        }
+    }
+
+    private void process(final RegionTask task, final UpgradeChunkStorage chunkStorage) {
+        final RegionStorageInfo info = new RegionStorageInfo(this.levelStorage.getLevelId(), this.dimension, task.folder);
+        final Path dir = task.file.getParent();
+        final Path temp = task.file.resolveSibling(task.file.getFileName() + TEMP_SUFFIX);
+        final boolean rewrite = this.recompress && !this.dryRun;
+        // counted per region, other regions fail concurrently
+        int failed = 0;
+        try {
+            try (final RegionFile source = new RegionFile(info, task.file, dir, RegionFileVersion.getCompressionFormat(), false);
+                 final RegionFile target = rewrite ? new RegionFile(info, temp, dir, RegionFileVersion.getCompressionFormat(), false) : null) {
+                for (int i = 0; i < 32 * 32; ++i) {
+                    final ChunkPos pos = new ChunkPos(task.region.x + (i & 31), task.region.z + (i >>> 5));
+                    if (!this.processChunk(task, chunkStorage, source, target == null ? source : target, pos, rewrite)) {
+                        ++failed;
+                    }
+                }
+            }
+            if (rewrite) {
+                if (failed != 0) {
+                    // keep the original, a failed chunk would be dropped from the new file
+                    Files.deleteIfExists(temp);
+                } else {
+                    Files.move(temp, task.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            if (!this.dryRun && failed == 0) {
+                this.markFinished(task.folder + "/" + task.file.getFileName());
+            }
+        } catch (final Throwable throwable) {
+            LOGGER.error("Failed to upgrade region file {}", task.file, throwable);
+            this.chunksFailed.increment();
+        } finally {
+            this.regionsDone.incrementAndGet();
+        }
+    }
+
+    // returns whether the chunk is missing or was processed successfully
+    private boolean processChunk(final RegionTask task, final UpgradeChunkStorage chunkStorage, final RegionFile source, final RegionFile target,
+                                 final ChunkPos pos, final boolean rewrite) {
+        try {
+            final CompoundTag data;
+            try (final DataInputStream in = source.getChunkDataInputStream(pos)) {
+                if (in == null) {
+                    return true;
+                }
+                data = NbtIo.read(in);
+            }
+            this.chunksScanned.increment();
+
+            final int version = task.type == MCTypeRegistry.CHUNK ? ChunkStorage.getVersion(data) : NbtUtils.getDataVersion(data, -1);
+            final boolean outdated = version < Version.getCurrentVersion();
+            if (this.dryRun) {
+                if (outdated) {
+                    this.chunksUpgraded.increment();
+                }
+                this.versions.computeIfAbsent(version, (final Integer key) -> new LongAdder()).increment();
+                return true;
+            }
+
+            CompoundTag upgraded = data;
+            if (outdated) {
+                upgraded = this.upgrade(task.type, chunkStorage, data, version, pos);
+                this.chunksUpgraded.increment();
+            }
+            final boolean erased = task.type == MCTypeRegistry.CHUNK && this.eraseCache && eraseCache(upgraded);
+            if (outdated || erased || rewrite) {
+                if (task.type == MCTypeRegistry.CHUNK) {
+                    // like ChunkStorage#write, the legacy structure data of the chunk is now part of the chunk itself
+                    chunkStorage.removeLegacyStructureIndex(pos);
+                }
+                try (final DataOutputStream out = target.getChunkDataOutputStream(pos)) {
+                    NbtIo.write(upgraded, out);
+                }
+                this.chunksWritten.increment();
+            }
+            return true;
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to upgrade chunk {} in {}", pos, task.file, ex);
+            this.chunksFailed.increment();
+            return false;
+        }
+    }
+
+    private CompoundTag upgrade(final MCDataType type, final ChunkStorage chunkStorage, final CompoundTag data, final int version, final ChunkPos pos) {
+        if (type == MCTypeRegistry.CHUNK) {
+            final CompoundTag upgraded = chunkStorage.upgradeChunkTag(this.levelStem, this::getOverworldDataStorage, data, this.generatorKey, pos, null);
+            final ChunkPos storedPos = new ChunkPos(upgraded.getIntOr("xPos", 0), upgraded.getIntOr("zPos", 0));
+            if (!storedPos.equals(pos)) {
+                LOGGER.warn("Chunk {} has invalid position {}", pos, storedPos);
+            }
+            return upgraded;
+        }
+        return NbtUtils.addCurrentDataVersion(MCDataConverter.convertTag(type, data, version, Version.getCurrentVersion()));
+    }
+
+    // drops data the server recomputes on load, like vanilla's --eraseCache
+    private static boolean eraseCache(final CompoundTag data) {
+        boolean changed = data.contains("Heightmaps") || data.contains("isLightOn");
+        data.remove("Heightmaps");
+        data.remove("isLightOn");
+        final ListTag sections = data.getListOrEmpty("sections");
+        for (int i = 0; i < sections.size(); ++i) {
+            final Tag tag = sections.get(i);
+            if (tag instanceof CompoundTag section) {
+                changed |= section.contains("BlockLight") || section.contains("SkyLight");
+                section.remove("BlockLight");
+                section.remove("SkyLight");
+            }
+        }
+        return changed;
+    }
+
+    private synchronized DimensionDataStorage getOverworldDataStorage() {
+        if (this.overworldDataStorage == null) {
+            this.overworldDataStorage = new DimensionDataStorage(this.levelStorage.getDimensionPath(Level.OVERWORLD).resolve("data"), this.dataFixer, this.registryAccess);
+        }
+        return this.overworldDataStorage;
+    }
+
+    private Set<String> readProgress() throws IOException {
+        final Path file = this.dimensionPath.resolve(PROGRESS_FILE);
+        if (!Files.isRegularFile(file)) {
+            return Set.of();
+        }
+        final Set<String> ret = new HashSet<>();
+        for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                ret.add(line.trim());
+            }
+        }
+        return ret;
+    }
+
+    private synchronized void markFinished(final String region) throws IOException {
+        if (this.progressWriter != null) {
+            this.progressWriter.write(region);
+            this.progressWriter.newLine();
+            this.progressWriter.flush();
+        }
+    }
+
+    private void deleteProgress() throws IOException {
+        if (!this.dryRun) {
+            Files.deleteIfExists(this.dimensionPath.resolve(PROGRESS_FILE));
+        }
+    }
+
+    // the region files are read and written directly by the worker owning them, this storage only upgrades chunk data
+    private static final class UpgradeChunkStorage extends ChunkStorage {
+
+        private UpgradeChunkStorage(final RegionStorageInfo info, final Path folder, final DataFixer fixerUpper, final boolean sync) {
+            super(info, folder, fixerUpper, sync);
+        }
+
+        private void removeLegacyStructureIndex(final ChunkPos pos) {
+            this.handleLegacyStructureIndex(pos);
+        }
+    }
+
+    private record RegionTask(String folder, Path file, ChunkPos region, MCDataType type) {
+    }
+}
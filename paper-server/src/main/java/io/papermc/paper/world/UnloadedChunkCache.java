@@ -0,0 +1,155 @@
+package io.papermc.paper.world;
+
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import it.unimi.dsi.fastutil.io.FastByteArrayOutputStream;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Keeps the chunk data written by recent chunk unloads in memory, LZ4 compressed, so that chunks which are loaded again
+ * shortly after unloading don't have to be read and inflated from their region file.
+ * <p>
+ * The cache is write-through: every entry has also been scheduled to be written to the region file, so evicting or
+ * dropping an entry never loses data. An entry is removed when the chunk is loaded from it, and any other save of the
+ * chunk's data invalidates it, so a cached entry is always the newest data of its chunk. The least recently inserted
+ * entries are evicted once the compressed size exceeds {@link GlobalConfiguration.ChunkSystem#unloadedChunkCacheSize}.
+ */
+public final class UnloadedChunkCache {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final Long2ObjectLinkedOpenHashMap<Entry> entries = new Long2ObjectLinkedOpenHashMap<>();
+    private long size;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private static long getMaxSize() {
+        return (long)GlobalConfiguration.get().chunkSystem.unloadedChunkCacheSize * 1024L * 1024L;
+    }
+
+    public static boolean isEnabled() {
+        return GlobalConfiguration.get().chunkSystem.unloadedChunkCacheSize > 0;
+    }
+
+    /**
+     * Compresses and stores the data of a chunk which is being unloaded.
+     */
+    public void put(final long chunkKey, final CompoundTag data) {
+        final long maxSize = getMaxSize();
+        if (maxSize <= 0L) {
+            this.clear();
+            return;
+        }
+
+        final Entry entry;
+        try {
+            entry = Entry.compress(data);
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed to serialize chunk data for the unloaded chunk cache", ex);
+            this.invalidate(chunkKey);
+            return;
+        }
+        if (entry.compressed.length > maxSize) {
+            this.invalidate(chunkKey);
+            return;
+        }
+
+        synchronized (this) {
+            final Entry previous = this.entries.putAndMoveToLast(chunkKey, entry);
+            if (previous != null) {
+                this.size -= previous.compressed.length;
+            }
+            this.size += entry.compressed.length;
+            while (this.size > maxSize) {
+                this.size -= this.entries.removeFirst().compressed.length;
+                ++this.evictions;
+            }
+        }
+    }
+
+    /**
+     * Removes the cached data of a chunk and returns it, or returns {@code null} if the chunk is not cached.
+     */
+    public @Nullable CompoundTag take(final long chunkKey) {
+        final Entry entry;
+        synchronized (this) {
+            entry = this.entries.remove(chunkKey);
+            if (entry == null) {
+                ++this.misses;
+                return null;
+            }
+            ++this.hits;
+            this.size -= entry.compressed.length;
+        }
+
+        try {
+            return entry.decompress();
+        } catch (final Exception ex) {
+            // the region file has the same data
+            LOGGER.warn("Failed to read chunk data from the unloaded chunk cache", ex);
+            return null;
+        }
+    }
+
+    public synchronized void invalidate(final long chunkKey) {
+        final Entry entry = this.entries.remove(chunkKey);
+        if (entry != null) {
+            this.size -= entry.compressed.length;
+        }
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.size = 0L;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(this.entries.size(), this.size, this.hits, this.misses, this.evictions);
+    }
+
+    public record Stats(int entries, long size, long hits, long misses, long evictions) {
+
+        public double hitRate() {
+            final long lookups = this.hits + this.misses;
+            return lookups == 0L ? 0.0 : (double)this.hits / (double)lookups;
+        }
+    }
+
+    private record Entry(byte[] compressed, int length) {
+
+        private static Entry compress(final CompoundTag data) throws IOException {
+            final FastByteArrayOutputStream bytes = new FastByteArrayOutputStream();
+            try (final DataOutputStream out = new DataOutputStream(bytes)) {
+                NbtIo.write(data, out);
+            }
+            final int length = bytes.length;
+            final byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(length)];
+            final int compressedLength = COMPRESSOR.compress(bytes.array, 0, length, compressed, 0, compressed.length);
+            return new Entry(Arrays.copyOf(compressed, compressedLength), length);
+        }
+
+        private CompoundTag decompress() throws IOException {
+            final byte[] raw = new byte[this.length];
+            DECOMPRESSOR.decompress(this.compressed, 0, raw, 0, this.length);
+            try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+                return NbtIo.read(in);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.papermc.paper.world;
+
+import io.netty.channel.Channel;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import io.papermc.paper.event.player.PlayerAdaptiveViewDistanceChangeEvent;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Limits the send and simulation distance of a single player based on the load of the server, the player's generation
+ * backlog and their connection.
+ * <p>
+ * The limits are applied on top of the distances computed by the chunk loader, and only ever move by one chunk per
+ * evaluation. Distances shrink as soon as an evaluation finds the server overloaded, but only grow back after several
+ * consecutive evaluations with every signal well below its shrink threshold, so they don't flap around the thresholds.
+ * Server load shrinks both distances, while generation and connection backlogs only shrink the send distance.
+ */
+public final class ViewDistanceController {
+
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private int sendLimit = UNLIMITED;
+    private int tickLimit = UNLIMITED;
+
+    // last distances seen by the chunk loader
+    private int configuredTick = -1;
+    private int configuredLoad = -1;
+    private int currentTick = -1;
+    private int currentSend = -1;
+
+    private int samples;
+    private int blockedSamples;
+    private int healthyEvaluations;
+
+    /**
+     * Samples the player's connection and evaluates the limits once per configured interval.
+     * <p>
+     * Plugin logic must not run while the chunk loader is ticking, so the change event is returned instead of called.
+     * The caller calls it once every player's chunk loader has been updated.
+     *
+     * @return the event describing the change of the distances, or null if they did not change
+     */
+    public @Nullable PlayerAdaptiveViewDistanceChangeEvent tick(final ServerPlayer player, final int generationBacklog) {
+        return this.tick(player, generationBacklog, GlobalConfiguration.get().adaptiveViewDistance,
+            (double)MinecraftServer.getServer().getAverageTickTimeNanos() / 1.0E6);
+    }
+
+    @Nullable PlayerAdaptiveViewDistanceChangeEvent tick(final ServerPlayer player, final int generationBacklog,
+                                                         final GlobalConfiguration.AdaptiveViewDistance config, final double mspt) {
+        if (!config.enabled) {
+            this.sendLimit = UNLIMITED;
+            this.tickLimit = UNLIMITED;
+            this.samples = 0;
+            this.blockedSamples = 0;
+            this.healthyEvaluations = 0;
+            return null;
+        }
+
+        ++this.samples;
+        final Channel channel = player.connection == null ? null : player.connection.connection.channel;
+        if (channel != null && !channel.isWritable()) {
+            ++this.blockedSamples;
+        }
+        if (this.samples < Math.max(1, config.evaluationInterval) || this.currentSend < 0) {
+            return null;
+        }
+
+        final double backpressure = (double)this.blockedSamples / (double)this.samples;
+        this.samples = 0;
+        this.blockedSamples = 0;
+
+        final PlayerAdaptiveViewDistanceChangeEvent.Cause shrinkCause;
+        if (mspt > config.shrinkMspt) {
+            shrinkCause = PlayerAdaptiveViewDistanceChangeEvent.Cause.SERVER_LOAD;
+        } else if (config.generationBacklog >= 0 && generationBacklog > config.generationBacklog) {
+            shrinkCause = PlayerAdaptiveViewDistanceChangeEvent.Cause.GENERATION_BACKLOG;
+        } else if (config.connectionBackpressure >= 0.0 && backpressure > config.connectionBackpressure) {
+            shrinkCause = PlayerAdaptiveViewDistanceChangeEvent.Cause.CONNECTION_BACKLOG;
+        } else {
+            shrinkCause = null;
+        }
+
+        final int oldSend = this.currentSend;
+        final int oldTick = this.currentTick;
+        int newSend = oldSend;
+        int newTick = oldTick;
+        final PlayerAdaptiveViewDistanceChangeEvent.Cause cause;
+        if (shrinkCause != null) {
+            this.healthyEvaluations = 0;
+            cause = shrinkCause;
+            if (oldSend > config.minSendDistance) {
+                newSend = this.sendLimit = oldSend - 1;
+            }
+            if (shrinkCause == PlayerAdaptiveViewDistanceChangeEvent.Cause.SERVER_LOAD && oldTick > config.minSimulationDistance) {
+                newTick = this.tickLimit = oldTick - 1;
+            }
+        } else {
+            final boolean healthy = mspt < config.growMspt
+                && (config.generationBacklog < 0 || generationBacklog <= config.generationBacklog / 2)
+                && (config.connectionBackpressure < 0.0 || backpressure <= config.connectionBackpressure / 2.0);
+            if (!healthy || ++this.healthyEvaluations < config.healthyEvaluationsToGrow) {
+                if (!healthy) {
+                    this.healthyEvaluations = 0;
+                }
+                return null;
+            }
+            this.healthyEvaluations = 0;
+            cause = PlayerAdaptiveViewDistanceChangeEvent.Cause.RECOVERED;
+
+            // grow the limits the chunk loader ran into, the others are no longer needed
+            if (this.sendLimit != UNLIMITED) {
+                if (oldSend < this.sendLimit) {
+                    this.sendLimit = UNLIMITED;
+                } else {
+                    newSend = ++this.sendLimit;
+                    if (this.sendLimit >= this.configuredLoad - 1) {
+                        this.sendLimit = UNLIMITED;
+                    }
+                }
+            }
+            if (this.tickLimit != UNLIMITED) {
+                if (oldTick < this.tickLimit) {
+                    this.tickLimit = UNLIMITED;
+                } else {
+                    newTick = ++this.tickLimit;
+                    if (this.tickLimit >= this.configuredTick) {
+                        this.tickLimit = UNLIMITED;
+                    }
+                }
+            }
+        }
+
+        if (newSend == oldSend && newTick == oldTick) {
+            return null;
+        }
+        return new PlayerAdaptiveViewDistanceChangeEvent(player.getBukkitEntity(), oldSend, newSend, oldTick, newTick, cause);
+    }
+
+    public int limitTickDistance(final int tickDistance) {
+        this.configuredTick = tickDistance;
+        return this.currentTick = Math.min(tickDistance, this.tickLimit);
+    }
+
+    public int limitLoadDistance(final int tickDistance, final int loadDistance) {
+        this.configuredLoad = loadDistance;
+        if (this.sendLimit == UNLIMITED) {
+            return loadDistance;
+        }
+        // load view cannot be less-than tick view + 1
+        return Math.min(loadDistance, Math.max(tickDistance + 1, this.sendLimit + 1));
+    }
+
+    public int limitSendDistance(final int sendDistance) {
+        return this.currentSend = Math.min(sendDistance, this.sendLimit);
+    }
+}
@@ -0,0 +1,152 @@
+package io.papermc.paper.world.pregen;
+
+import ca.spottedleaf.moonrise.common.util.CoordinateUtils;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import java.util.Locale;
+
+/**
+ * The area covered by a pre-generation job, in chunk coordinates.
+ * <p>
+ * {@link #regions()} lists every region file intersecting the shape in the order they are generated in. For square and
+ * circle shapes the regions closest to the center come first, so an interrupted job still leaves a contiguous area
+ * behind.
+ */
+public sealed interface PregenShape {
+
+    int REGION_SHIFT = 5;
+    int REGION_SIZE = 1 << REGION_SHIFT;
+
+    String type();
+
+    boolean contains(int chunkX, int chunkZ);
+
+    long[] regions();
+
+    String describe();
+
+    static PregenShape parse(final String type, final int centerX, final int centerZ, final int radius) {
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "square" -> new Square(centerX, centerZ, radius);
+            case "circle" -> new Circle(centerX, centerZ, radius);
+            default -> throw new IllegalArgumentException("Unknown shape '" + type + "'");
+        };
+    }
+
+    /**
+     * Returns the amount of chunks in the regions of this shape which are contained in it.
+     */
+    default long countChunks() {
+        long count = 0L;
+        for (final long region : this.regions()) {
+            final int baseX = CoordinateUtils.getChunkX(region) << REGION_SHIFT;
+            final int baseZ = CoordinateUtils.getChunkZ(region) << REGION_SHIFT;
+            for (int dz = 0; dz < REGION_SIZE; ++dz) {
+                for (int dx = 0; dx < REGION_SIZE; ++dx) {
+                    if (this.contains(baseX + dx, baseZ + dz)) {
+                        ++count;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the regions intersecting the square of the given radius around the given chunk, ordered by their distance
+     * to the region of that chunk.
+     */
+    static long[] regionsAround(final int centerX, final int centerZ, final int radius) {
+        final int minRegionX = (centerX - radius) >> REGION_SHIFT;
+        final int maxRegionX = (centerX + radius) >> REGION_SHIFT;
+        final int minRegionZ = (centerZ - radius) >> REGION_SHIFT;
+        final int maxRegionZ = (centerZ + radius) >> REGION_SHIFT;
+        final int centerRegionX = centerX >> REGION_SHIFT;
+        final int centerRegionZ = centerZ >> REGION_SHIFT;
+
+        final LongArrayList regions = new LongArrayList();
+        for (int regionZ = minRegionZ; regionZ <= maxRegionZ; ++regionZ) {
+            for (int regionX = minRegionX; regionX <= maxRegionX; ++regionX) {
+                regions.add(CoordinateUtils.getChunkKey(regionX, regionZ));
+            }
+        }
+        final long[] ret = regions.toLongArray();
+        // merge sort is stable, regions within a ring stay in row order
+        LongArrays.mergeSort(ret, (final long r1, final long r2) -> Integer.compare(
+            Math.max(Math.abs(CoordinateUtils.getChunkX(r1) - centerRegionX), Math.abs(CoordinateUtils.getChunkZ(r1) - centerRegionZ)),
+            Math.max(Math.abs(CoordinateUtils.getChunkX(r2) - centerRegionX), Math.abs(CoordinateUtils.getChunkZ(r2) - centerRegionZ))
+        ));
+        return ret;
+    }
+
+    record Square(int centerX, int centerZ, int radius) implements PregenShape {
+
+        @Override
+        public String type() {
+            return "square";
+        }
+
+        @Override
+        public boolean contains(final int chunkX, final int chunkZ) {
+            return Math.abs(chunkX - this.centerX) <= this.radius && Math.abs(chunkZ - this.centerZ) <= this.radius;
+        }
+
+        @Override
+        public long[] regions() {
+            return regionsAround(this.centerX, this.centerZ, this.radius);
+        }
+
+        @Override
+        public String describe() {
+            return "square of radius " + this.radius + " chunks around chunk " + this.centerX + ", " + this.centerZ;
+        }
+    }
+
+    record Circle(int centerX, int centerZ, int radius) implements PregenShape {
+
+        @Override
+        public String type() {
+            return "circle";
+        }
+
+        @Override
+        public boolean contains(final int chunkX, final int chunkZ) {
+            final long dx = chunkX - this.centerX;
+            final long dz = chunkZ - this.centerZ;
+            return dx * dx + dz * dz <= (long)this.radius * (long)this.radius;
+        }
+
+        @Override
+        public long[] regions() {
+            return regionsAround(this.centerX, this.centerZ, this.radius);
+        }
+
+        @Override
+        public String describe() {
+            return "circle of radius " + this.radius + " chunks around chunk " + this.centerX + ", " + this.centerZ;
+        }
+    }
+
+    record Regions(long[] regions) implements PregenShape {
+
+        @Override
+        public String type() {
+            return "regions";
+        }
+
+        @Override
+        public boolean contains(final int chunkX, final int chunkZ) {
+            return true; // only the listed regions are iterated
+        }
+
+        @Override
+        public long[] regions() {
+            return this.regions.clone();
+        }
+
+        @Override
+        public String describe() {
+            return this.regions.length + " region(s)";
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package io.papermc.paper.world.pregen;
+
+import ca.spottedleaf.concurrentutil.util.Priority;
+import ca.spottedleaf.moonrise.common.util.CoordinateUtils;
+import ca.spottedleaf.moonrise.patches.chunk_system.level.ChunkSystemServerLevel;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Generates every chunk of a {@link PregenShape} in a world, one region file after another.
+ * <p>
+ * The job is driven from the server tick and keeps up to {@link GlobalConfiguration.ChunkSystem#pregeneratorParallelism}
+ * chunk generations in flight through the chunk task scheduler, at a low priority so chunks requested by players are
+ * generated first. Generating region by region keeps the chunks that are written together in the same region file.
+ * <p>
+ * Progress is saved to the dimension's data folder periodically and when the world is closed. Regions that are
+ * completely generated are never requested again, so a job interrupted by a restart resumes at its oldest unfinished
+ * region. Chunks which fail to generate are counted separately from the generated ones.
+ */
+public final class WorldPregenerator {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String STATE_FILE = "paper_pregenerator.json";
+    private static final long SAVE_INTERVAL = TimeUnit.SECONDS.toNanos(10L);
+    private static final long RATE_INTERVAL = TimeUnit.SECONDS.toNanos(1L);
+
+    private final ServerLevel level;
+    private @Nullable Path stateFile;
+    private boolean loaded;
+    private @Nullable Job job;
+
+    public WorldPregenerator(final ServerLevel level) {
+        this.level = level;
+    }
+
+    private Path getStateFile() {
+        if (this.stateFile == null) {
+            this.stateFile = this.level.levelStorageAccess.getDimensionPath(this.level.dimension()).resolve("data").resolve(STATE_FILE);
+        }
+        return this.stateFile;
+    }
+
+    public @Nullable Job getJob() {
+        return this.job;
+    }
+
+    public boolean start(final PregenShape shape) {
+        this.loaded = true;
+        if (this.job != null) {
+            return false;
+        }
+        this.job = new Job(shape, 0, 0L, 0L, false);
+        this.job.lastSave = System.nanoTime();
+        this.save();
+        LOGGER.info("Started pre-generating {} in {}", shape.describe(), this.level.getWorld().getName());
+        return true;
+    }
+
+    public boolean setPaused(final boolean paused) {
+        if (this.job == null || this.job.paused == paused) {
+            return false;
+        }
+        this.job.paused = paused;
+        this.save();
+        return true;
+    }
+
+    public boolean cancel() {
+        if (this.job == null) {
+            return false;
+        }
+        // in flight generations finish on their own
+        this.job = null;
+        this.deleteState();
+        return true;
+    }
+
+    public void tick() {
+        if (!this.loaded) {
+            this.loaded = true;
+            this.job = this.load();
+        }
+        if (this.job == null) {
+            return;
+        }
+
+        final Job job = this.job;
+        final long now = System.nanoTime();
+        job.updateProgress(now);
+        if (!job.paused) {
+            final int parallelism = Math.max(1, GlobalConfiguration.get().chunkSystem.pregeneratorParallelism);
+            while (job.inFlight.get() < parallelism && job.scheduleNext(this.level)) {
+                // keep scheduling
+            }
+        }
+
+        if (job.isComplete()) {
+            if (job.failedChunks() > 0L) {
+                LOGGER.warn("Finished pre-generating {} chunks in {}, {} chunk(s) failed to generate", job.generatedChunks(), this.level.getWorld().getName(), job.failedChunks());
+            } else {
+                LOGGER.info("Finished pre-generating {} chunks in {}", job.generatedChunks(), this.level.getWorld().getName());
+            }
+            this.job = null;
+            this.deleteState();
+            return;
+        }
+        if (now - job.lastSave >= SAVE_INTERVAL) {
+            this.save();
+        }
+    }
+
+    /**
+     * Saves the progress of the job when the world is closed, so the job resumes from there.
+     */
+    public void close() {
+        final Job job = this.job;
+        if (job == null) {
+            return;
+        }
+        job.updateProgress(System.nanoTime());
+        this.save();
+    }
+
+    private @Nullable Job load() {
+        final Path file = this.getStateFile();
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            final State state = GSON.fromJson(reader, State.class);
+            final Job job = new Job(state.toShape(), state.completedRegions, state.completedChunks, state.failedChunks, state.paused);
+            job.lastSave = System.nanoTime();
+            LOGGER.info("Resuming pre-generation of {} in {} at region {}/{}", job.shape.describe(), this.level.getWorld().getName(), state.completedRegions, job.regions.length);
+            return job;
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to read pre-generation state from {}", file, ex);
+            return null;
+        }
+    }
+
+    public void save() {
+        final Job job = this.job;
+        if (job == null) {
+            return;
+        }
+        job.lastSave = System.nanoTime();
+        final Path file = this.getStateFile();
+        try {
+            Files.createDirectories(file.getParent());
+            final Path tmp = file.resolveSibling(STATE_FILE + ".tmp");
+            try (final Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                GSON.toJson(State.of(job), writer);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ex) {
+            LOGGER.error("Failed to save pre-generation state to {}", file, ex);
+        }
+    }
+
+    private void deleteState() {
+        try {
+            Files.deleteIfExists(this.getStateFile());
+        } catch (final IOException ex) {
+            LOGGER.error("Failed to delete pre-generation state {}", this.getStateFile(), ex);
+        }
+    }
+
+    public static final class Job {
+
+        private final PregenShape shape;
+        private final long[] regions;
+        private final long totalChunks;
+        // per region, only touched on the main thread
+        private final int[] scheduledInRegion;
+        // per region, decremented by the completion callbacks
+        private final AtomicIntegerArray pendingInRegion;
+        // per region, incremented by the completion callbacks
+        private final AtomicIntegerArray failedInRegion;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong generated = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private boolean paused;
+
+        private int completedRegions;
+        private long chunksInCompletedRegions;
+        private long failedInCompletedRegions;
+        private int region;
+        private int chunkInRegion;
+        private final long initialChunks;
+        private final long initialFailed;
+
+        private long lastSave;
+        private long lastRateUpdate;
+        private long lastRateCompleted;
+        private double chunksPerSecond;
+
+        private Job(final PregenShape shape, final int completedRegions, final long completedChunks, final long failedChunks, final boolean paused) {
+            this.shape = shape;
+            this.regions = shape.regions();
+            this.totalChunks = shape.countChunks();
+            this.scheduledInRegion = new int[this.regions.length];
+            this.pendingInRegion = new AtomicIntegerArray(this.regions.length);
+            this.failedInRegion = new AtomicIntegerArray(this.regions.length);
+            this.completedRegions = this.region = Math.min(completedRegions, this.regions.length);
+            this.chunksInCompletedRegions = this.initialChunks = completedChunks;
+            this.failedInCompletedRegions = this.initialFailed = failedChunks;
+            this.paused = paused;
+        }
+
+        private boolean scheduleNext(final ServerLevel level) {
+            while (this.region < this.regions.length) {
+                if (this.chunkInRegion >= PregenShape.REGION_SIZE * PregenShape.REGION_SIZE) {
+                    ++this.region;
+                    this.chunkInRegion = 0;
+                    continue;
+                }
+                final int regionIndex = this.region;
+                final long regionKey = this.regions[regionIndex];
+                final int index = this.chunkInRegion++;
+                final int chunkX = (CoordinateUtils.getChunkX(regionKey) << PregenShape.REGION_SHIFT) | (index & (PregenShape.REGION_SIZE - 1));
+                final int chunkZ = (CoordinateUtils.getChunkZ(regionKey) << PregenShape.REGION_SHIFT) | (index >>> PregenShape.REGION_SHIFT);
+                if (!this.shape.contains(chunkX, chunkZ)) {
+                    continue;
+                }
+
+                ++this.scheduledInRegion[regionIndex];
+                this.pendingInRegion.incrementAndGet(regionIndex);
+                this.inFlight.incrementAndGet();
+                ((ChunkSystemServerLevel)level).moonrise$getChunkTaskScheduler().scheduleChunkLoad(
+                    chunkX, chunkZ, ChunkStatus.FULL, true, Priority.LOW,
+                    (final ChunkAccess chunk) -> {
+                        if (chunk == null) {
+                            this.failedInRegion.incrementAndGet(regionIndex);
+                            this.failed.incrementAndGet();
+                        } else {
+                            this.generated.incrementAndGet();
+                        }
+                        this.pendingInRegion.decrementAndGet(regionIndex);
+                        this.inFlight.decrementAndGet();
+                    }
+                );
+                return true;
+            }
+            return false;
+        }
+
+        private void updateProgress(final long now) {
+            // regions before the one being scheduled have been scheduled completely
+            while (this.completedRegions < this.region && this.pendingInRegion.get(this.completedRegions) == 0) {
+                this.chunksInCompletedRegions += this.scheduledInRegion[this.completedRegions];
+                this.failedInCompletedRegions += this.failedInRegion.get(this.completedRegions);
+                ++this.completedRegions;
+            }
+
+            if (this.lastRateUpdate == 0L) {
+                this.lastRateUpdate = now;
+            } else if (now - this.lastRateUpdate >= RATE_INTERVAL) {
+                final long completed = this.completedChunks();
+                final double rate = (double)(completed - this.lastRateCompleted) / ((double)(now - this.lastRateUpdate) / 1.0E9);
+                this.chunksPerSecond = this.chunksPerSecond == 0.0 ? rate : this.chunksPerSecond * 0.8 + rate * 0.2;
+                this.lastRateCompleted = completed;
+                this.lastRateUpdate = now;
+            }
+        }
+
+        private boolean isComplete() {
+            return this.region >= this.regions.length && this.inFlight.get() == 0;
+        }
+
+        public PregenShape shape() {
+            return this.shape;
+        }
+
+        public boolean isPaused() {
+            return this.paused;
+        }
+
+        public long totalChunks() {
+            return this.totalChunks;
+        }
+
+        /**
+         * Returns the amount of chunks generated or failed to generate, including the ones before the job was resumed.
+         */
+        public long completedChunks() {
+            return this.initialChunks + this.generated.get() + this.failed.get();
+        }
+
+        /**
+         * Returns the amount of chunks generated, including the ones generated before the job was resumed.
+         */
+        public long generatedChunks() {
+            return this.initialChunks - this.initialFailed + this.generated.get();
+        }
+
+        /**
+         * Returns the amount of chunks which failed to generate, including the ones before the job was resumed.
+         */
+        public long failedChunks() {
+            return this.initialFailed + this.failed.get();
+        }
+
+        public int inFlight() {
+            return this.inFlight.get();
+        }
+
+        public double chunksPerSecond() {
+            return this.chunksPerSecond;
+        }
+
+        /**
+         * Returns the estimated remaining time in seconds, or -1 if unknown.
+         */
+        public long etaSeconds() {
+            if (this.chunksPerSecond <= 0.0 || this.paused) {
+                return -1L;
+            }
+            return (long)(Math.max(0L, this.totalChunks - this.completedChunks()) / this.chunksPerSecond);
+        }
+    }
+
+    private static final class State {
+        String shape;
+        int centerX;
+        int centerZ;
+        int radius;
+        long[] regions;
+        int completedRegions;
+        long completedChunks;
+        long failedChunks;
+        boolean paused;
+
+        static State of(final Job job) {
+            final State state = new State();
+            state.shape = job.shape.type();
+            if (job.shape instanceof PregenShape.Square square) {
+                state.centerX = square.centerX();
+                state.centerZ = square.centerZ();
+                state.radius = square.radius();
+            } else if (job.shape instanceof PregenShape.Circle circle) {
+                state.centerX = circle.centerX();
+                state.centerZ = circle.centerZ();
+                state.radius = circle.radius();
+            } else if (job.shape instanceof PregenShape.Regions regions) {
+                state.regions = regions.regions();
+            }
+            state.completedRegions = job.completedRegions;
+            state.completedChunks = job.chunksInCompletedRegions;
+            state.failedChunks = job.failedInCompletedRegions;
+            state.paused = job.paused;
+            return state;
+        }
+
+        PregenShape toShape() {
+            if ("regions".equals(this.shape)) {
+                return new PregenShape.Regions(this.regions);
+            }
+            return PregenShape.parse(this.shape, this.centerX, this.centerZ, this.radius);
+        }
+    }
+}
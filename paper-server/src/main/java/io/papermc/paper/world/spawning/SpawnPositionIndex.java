@@ -0,0 +1,120 @@
+package io.papermc.paper.world.spawning;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.entity.MobCategory;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.level.material.Fluids;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Per-section summary of the blocks natural spawning can start from.
+ * <p>
+ * Every {@link LevelChunkSection} keeps a count of the positions matching each spawn medium, maintained
+ * incrementally on block changes. The natural spawner uses these counts to skip chunks that cannot
+ * spawn a category at all, and to pick the starting height only from sections that contain candidates.
+ * The counts only look at the block state; light, biome and per-type spawn rules are still checked by
+ * the spawner for the chosen position.
+ */
+public final class SpawnPositionIndex {
+
+    public static final int MEDIUM_NONE = -1;
+    public static final int MEDIUM_OPEN = 0;
+    public static final int MEDIUM_WATER = 1;
+
+    // A stale read only makes a section count its blocks again when it is next used
+    private static boolean enabled;
+
+    private SpawnPositionIndex() {
+    }
+
+    /**
+     * Returns whether sections keep their counts up to date on block changes. Set once any world enables the index.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Makes sections keep their counts up to date on block changes. Sections changed before count their blocks again
+     * when they are first used.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    static void setEnabled(final boolean enabled) {
+        SpawnPositionIndex.enabled = enabled;
+    }
+
+    public static int mediumOf(final BlockState state) {
+        final FluidState fluid = state.getFluidState();
+        if (!fluid.isEmpty()) {
+            return Fluids.WATER.isSame(fluid.getType()) ? MEDIUM_WATER : MEDIUM_NONE;
+        }
+        // position independent subset of NaturalSpawner#isValidEmptySpawnBlock, the full check needs tags and the entity type
+        if (state.isSignalSource() || state.isCollisionShapeFullBlock(EmptyBlockGetter.INSTANCE, BlockPos.ZERO)) {
+            return MEDIUM_NONE;
+        }
+        return MEDIUM_OPEN;
+    }
+
+    public static int mediumOf(final MobCategory category) {
+        return switch (category) {
+            case MONSTER, CREATURE, AMBIENT -> MEDIUM_OPEN;
+            case AXOLOTLS, UNDERGROUND_WATER_CREATURE, WATER_CREATURE, WATER_AMBIENT -> MEDIUM_WATER;
+            case MISC -> MEDIUM_NONE;
+        };
+    }
+
+    /**
+     * Picks the starting position for a spawn attempt in the given chunk. The horizontal position and the
+     * surface limit are chosen the same way as vanilla, the height is then sampled from the sections below
+     * the surface weighted by their candidate count.
+     *
+     * @return the position, or {@code null} if no section below the surface can spawn the category
+     */
+    public static @Nullable BlockPos getRandomSpawnPosition(final Level level, final LevelChunk chunk, final MobCategory category) {
+        final int medium = mediumOf(category);
+        if (medium == MEDIUM_NONE) {
+            return null;
+        }
+
+        final RandomSource random = level.random;
+        final int x = chunk.getPos().getMinBlockX() + random.nextInt(16);
+        final int z = chunk.getPos().getMinBlockZ() + random.nextInt(16);
+        final int minY = level.getMinY();
+        final int maxY = chunk.getHeight(Heightmap.Types.WORLD_SURFACE, x, z) + 1;
+
+        final LevelChunkSection[] sections = chunk.getSections();
+        final int maxSection = Math.min(sections.length - 1, chunk.getSectionIndex(maxY));
+
+        int total = 0;
+        for (int i = 0; i <= maxSection; ++i) {
+            total += sections[i].getSpawnPositionCount(medium);
+        }
+        if (total <= 0) {
+            return null;
+        }
+
+        int target = random.nextInt(total);
+        for (int i = 0; i <= maxSection; ++i) {
+            target -= sections[i].getSpawnPositionCount(medium);
+            if (target >= 0) {
+                continue;
+            }
+            final int sectionMinY = chunk.getSectionYFromSectionIndex(i) << 4;
+            final int fromY = Math.max(minY, sectionMinY);
+            final int toY = Math.min(maxY, sectionMinY + 15);
+            return new BlockPos(x, fromY + random.nextInt(toY - fromY + 1), z);
+        }
+
+        throw new IllegalStateException("Spawn position counts changed while sampling");
+    }
+}
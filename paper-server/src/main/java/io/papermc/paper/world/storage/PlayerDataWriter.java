@@ -0,0 +1,250 @@
+package io.papermc.paper.world.storage;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+import net.minecraft.DefaultUncaughtExceptionHandlerWithName;
+import net.minecraft.Util;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Compresses and writes player data files on a dedicated thread.
+ * <p>
+ * The tick thread only builds the player's tag and hands it over. Saves of a player that is still queued replace the
+ * queued tag, so a burst of saves for the same player results in a single write. Every batch taken from the queue is
+ * written to temporary files first, optionally synced to disk together, and then moved into place with the usual
+ * {@code .dat_old} backup.
+ */
+public final class PlayerDataWriter {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    // <uuid>-<random number>.dat, as created by Files.createTempFile here and File.createTempFile in vanilla
+    private static final Pattern TEMP_FILE = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}-[0-9]+\\.dat");
+
+    private final Path playerDir;
+    private final BooleanSupplier fsync;
+    private final Object lock = new Object();
+    // guarded by lock
+    private final LinkedHashMap<UUID, CompoundTag> queued = new LinkedHashMap<>();
+    private final Map<UUID, CompoundTag> writing = new LinkedHashMap<>();
+    private @Nullable Thread thread;
+    // submissions are numbered, so flush can wait for the batch containing the last one
+    private long submitted;
+    private long written;
+
+    public PlayerDataWriter(final Path playerDir, final BooleanSupplier fsync) {
+        this.playerDir = playerDir;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Queues the given tag to be written for the player. The tag must not be modified afterwards.
+     */
+    public void submit(final UUID uuid, final CompoundTag tag) {
+        synchronized (this.lock) {
+            this.queued.put(uuid, tag);
+            ++this.submitted;
+            if (this.thread == null) {
+                final Thread thread = new Thread(this::run, "Paper Player Data Writer");
+                thread.setDaemon(true);
+                thread.setUncaughtExceptionHandler(new DefaultUncaughtExceptionHandlerWithName(LOGGER));
+                thread.start();
+                this.thread = thread;
+            }
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns whether any player data is queued or being written.
+     */
+    public boolean isBusy() {
+        synchronized (this.lock) {
+            return !this.queued.isEmpty() || !this.writing.isEmpty();
+        }
+    }
+
+    /**
+     * Returns a copy of the latest data queued or being written for the player, which is newer than the data on disk.
+     */
+    public @Nullable CompoundTag getPending(final UUID uuid) {
+        final CompoundTag tag;
+        synchronized (this.lock) {
+            final CompoundTag queued = this.queued.get(uuid);
+            tag = queued != null ? queued : this.writing.get(uuid);
+        }
+        return tag == null ? null : tag.copy();
+    }
+
+    /**
+     * Blocks until everything submitted before this call has been written, including the batch being written right
+     * now. If the writer thread is not running, the remaining data is written on the calling thread.
+     */
+    public void flush() {
+        boolean interrupted = false;
+        boolean writeHere = false;
+        synchronized (this.lock) {
+            final long target = this.submitted;
+            while (this.written < target) {
+                if (this.writing.isEmpty() && (this.thread == null || !this.thread.isAlive())) {
+                    writeHere = true;
+                    break;
+                }
+                try {
+                    this.lock.wait();
+                } catch (final InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (writeHere) {
+            LOGGER.warn("Player data writer thread is not running, writing remaining player data on {}", Thread.currentThread().getName());
+            this.writeQueued();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                synchronized (this.lock) {
+                    while (this.queued.isEmpty()) {
+                        try {
+                            this.lock.wait();
+                        } catch (final InterruptedException ignored) {
+                        }
+                    }
+                }
+                this.writeQueued();
+            }
+        } finally {
+            // only reached if writing failed with an error, let the next submit start a new thread and wake up any
+            // flush waiting for this one so it can write the rest itself
+            synchronized (this.lock) {
+                if (this.thread == Thread.currentThread()) {
+                    this.thread = null;
+                }
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    private void writeQueued() {
+        final long batch;
+        synchronized (this.lock) {
+            this.writing.putAll(this.queued);
+            this.queued.clear();
+            batch = this.submitted;
+        }
+
+        boolean written = false;
+        try {
+            this.writeBatch();
+            written = true;
+        } finally {
+            synchronized (this.lock) {
+                if (written) {
+                    this.written = Math.max(this.written, batch);
+                } else {
+                    // keep the data of a failed batch, unless it was saved again in the meantime
+                    for (final Map.Entry<UUID, CompoundTag> entry : this.writing.entrySet()) {
+                        this.queued.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                }
+                this.writing.clear();
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    private void writeBatch() {
+        final Map<UUID, CompoundTag> batch;
+        synchronized (this.lock) {
+            batch = new LinkedHashMap<>(this.writing);
+        }
+
+        final List<UUID> players = new ArrayList<>(batch.size());
+        final List<Path> tempFiles = new ArrayList<>(batch.size());
+        try {
+            for (final Map.Entry<UUID, CompoundTag> entry : batch.entrySet()) {
+                final String stringUuid = entry.getKey().toString();
+                try {
+                    final Path tempFile = Files.createTempFile(this.playerDir, stringUuid + "-", ".dat");
+                    tempFiles.add(tempFile);
+                    NbtIo.writeCompressed(entry.getValue(), tempFile);
+                    players.add(entry.getKey());
+                } catch (final Exception ex) {
+                    LOGGER.warn("Failed to save player data for {}", stringUuid, ex);
+                    // the temporary file was created, but could not be written
+                    if (tempFiles.size() > players.size()) {
+                        deleteTempFile(tempFiles.removeLast());
+                    }
+                }
+            }
+
+            if (this.fsync.getAsBoolean()) {
+                for (final Path tempFile : tempFiles) {
+                    try (final FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                        channel.force(true);
+                    } catch (final IOException ex) {
+                        LOGGER.warn("Failed to sync player data file {}", tempFile, ex);
+                    }
+                }
+            }
+
+            for (int i = 0, len = players.size(); i < len; ++i) {
+                final String stringUuid = players.get(i).toString();
+                try {
+                    Util.safeReplaceFile(this.playerDir.resolve(stringUuid + ".dat"), tempFiles.get(i), this.playerDir.resolve(stringUuid + ".dat_old"));
+                } catch (final Exception ex) {
+                    LOGGER.warn("Failed to save player data for {}", stringUuid, ex);
+                }
+            }
+        } finally {
+            // the files moved into place are gone, this only deletes the ones of failed saves or of a failed batch
+            for (final Path tempFile : tempFiles) {
+                deleteTempFile(tempFile);
+            }
+        }
+    }
+
+    private static void deleteTempFile(final Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed to delete temporary player data file {}", tempFile, ex);
+        }
+    }
+
+    /**
+     * Deletes temporary files left behind by saves that were interrupted, e.g. by a crash. Must not be called while
+     * player data is being saved.
+     */
+    public static void deleteTempFiles(final Path playerDir) {
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(playerDir, "*-*.dat")) {
+            for (final Path file : files) {
+                if (TEMP_FILE.matcher(file.getFileName().toString()).matches()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed to delete temporary player data files in {}", playerDir, ex);
+        }
+    }
+}
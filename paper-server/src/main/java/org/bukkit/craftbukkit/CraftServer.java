@@ -25,6 +25,7 @@ import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
@@ -627,6 +628,7 @@ public final class CraftServer implements Server {
 
     public void syncCommands() {
         Commands dispatcher = this.getHandle().getServer().getCommands(); // Paper - We now register directly to the dispatcher.
+        dispatcher.sentCommandTrees.invalidate(); // Paper - cache sent command trees
 
         // Refresh commands
         for (ServerPlayer player : this.getHandle().players) {
@@ -1356,7 +1358,7 @@ public final class CraftServer implements Server {
         primaryLevelData.setModdedInfo(this.console.getServerModName(), this.console.getModdedStatus().shouldReportAsModified());
 
         if (this.console.options.has("forceUpgrade")) {
-            net.minecraft.server.Main.forceUpgrade(levelStorageAccess, primaryLevelData, DataFixers.getDataFixer(), this.console.options.has("eraseCache"), () -> true, registryAccess, this.console.options.has("recreateRegionFiles"));
+            io.papermc.paper.world.ThreadedWorldUpgrader.forceUpgrade(levelStorageAccess, DataFixers.getDataFixer(), this.console.options.has("eraseCache"), registryAccess, this.console.options.has("recreateRegionFiles"), this.console.options); // Paper - threaded world upgrader
         }
 
         long i = BiomeManager.obfuscateSeed(primaryLevelData.worldGenOptions().seed());
@@ -1540,6 +1542,18 @@ public final class CraftServer implements Server {
     @Override
     public boolean addRecipe(Recipe recipe, boolean resendRecipes) {
         // Paper end - API for updating recipes on clients
+        CraftRecipe toAdd = this.toCraftRecipe(recipe); // Paper - batch recipe changes
+        if (toAdd == null) {
+            return false;
+        }
+        toAdd.addToCraftingManager();
+        // Paper - API for updating recipes on clients; batch recipe changes - the recipe manager resends recipes once at the end of the tick
+        return true;
+    }
+
+    // Paper start - batch recipe changes
+    @Nullable
+    private CraftRecipe toCraftRecipe(Recipe recipe) {
         CraftRecipe toAdd;
         if (recipe instanceof CraftRecipe) {
             toAdd = (CraftRecipe) recipe;
@@ -1567,17 +1581,55 @@ public final class CraftServer implements Server {
             } else if (recipe instanceof ComplexRecipe) {
                 throw new UnsupportedOperationException("Cannot add custom complex recipe");
             } else {
-                return false;
+                return null;
             }
         }
-        toAdd.addToCraftingManager();
-        // Paper start - API for updating recipes on clients
-        if (true || resendRecipes) { // Always needs to be resent now... TODO
-            this.playerList.reloadRecipes();
+        return toAdd;
+    }
+
+    @Override
+    public boolean addRecipes(final Collection<? extends Recipe> recipes) {
+        return this.modifyRecipes(List.of(), recipes);
+    }
+
+    @Override
+    public boolean modifyRecipes(final Collection<NamespacedKey> removals, final Collection<? extends Recipe> additions) {
+        Preconditions.checkArgument(removals != null, "removals cannot be null");
+        Preconditions.checkArgument(additions != null, "additions cannot be null");
+        final net.minecraft.world.item.crafting.RecipeManager recipeManager = this.getServer().getRecipeManager();
+
+        // validate everything first, so an invalid recipe leaves the recipes untouched
+        final Set<NamespacedKey> removed = new HashSet<>(removals.size());
+        for (final NamespacedKey key : removals) {
+            Preconditions.checkArgument(key != null, "removals cannot contain null");
+            removed.add(key);
         }
-        // Paper end - API for updating recipes on clients
-        return true;
+        // convert every recipe up front as well, conversion throws for invalid ingredients or shapes
+        final List<RecipeHolder<?>> toAdd = new ArrayList<>(additions.size());
+        final Set<NamespacedKey> added = new HashSet<>(additions.size());
+        for (final Recipe recipe : additions) {
+            Preconditions.checkArgument(recipe != null, "additions cannot contain null");
+            Preconditions.checkArgument(recipe instanceof CraftRecipe || !(recipe instanceof ComplexRecipe), "Cannot add custom complex recipe");
+            final CraftRecipe craftRecipe = this.toCraftRecipe(recipe);
+            Preconditions.checkArgument(craftRecipe instanceof Keyed, "Cannot add recipe of type %s", recipe.getClass().getName());
+            final NamespacedKey key = ((Keyed) craftRecipe).getKey();
+            Preconditions.checkArgument(added.add(key), "Recipe %s is added twice", key);
+            Preconditions.checkArgument(removed.contains(key) || recipeManager.byKey(CraftRecipe.toMinecraft(key)).isEmpty(), "Recipe %s already exists", key);
+            toAdd.add(craftRecipe.toMinecraftRecipe());
+        }
+
+        final boolean[] changed = {!toAdd.isEmpty()};
+        recipeManager.batchChanges(() -> {
+            for (final NamespacedKey key : removed) {
+                changed[0] |= recipeManager.removeRecipe(CraftRecipe.toMinecraft(key));
+            }
+            for (final RecipeHolder<?> recipe : toAdd) {
+                recipeManager.addRecipe(recipe);
+            }
+        });
+        return changed[0];
     }
+    // Paper end - batch recipe changes
 
     @Override
     public List<Recipe> getRecipesFor(ItemStack result) {
@@ -1774,11 +1826,8 @@ public final class CraftServer implements Server {
 
         // Paper start - resend recipes on successful removal
         final ResourceKey<net.minecraft.world.item.crafting.Recipe<?>> minecraftKey = CraftRecipe.toMinecraft(recipeKey);
-        final boolean removed = this.getServer().getRecipeManager().removeRecipe(minecraftKey);
-        if (removed/* && resendRecipes*/) { // TODO Always need to resend them rn - deprecate this method?
-            this.playerList.reloadRecipes();
-        }
-        return removed;
+        // the recipe manager resends recipes once at the end of the tick - Paper - batch recipe changes
+        return this.getServer().getRecipeManager().removeRecipe(minecraftKey);
         // Paper end - resend recipes on successful removal
     }
 
@@ -128,6 +128,14 @@ public class Main {
                 this.accepts("forceUpgrade", "Whether to force a world upgrade");
                 this.accepts("eraseCache", "Whether to force cache erase during world upgrade");
                 this.accepts("recreateRegionFiles", "Whether to recreate region files during world upgrade");
+                // Paper start - threaded world upgrader
+                this.accepts("forceUpgradeThreads", "Number of threads used by the world upgrade, defaults to the number of processors")
+                        .withRequiredArg()
+                        .ofType(Integer.class)
+                        .describedAs("Thread count");
+                this.accepts("forceUpgradeDryRun", "Only count the chunks the world upgrade would convert, without writing anything");
+                this.accepts("forceUpgradeRecompress", "Rewrite every chunk with the configured region file compression during the world upgrade");
+                // Paper end - threaded world upgrader
                 this.accepts("safeMode", "Loads level with vanilla datapack only"); // Paper
                 this.accepts("nogui", "Disables the graphical console");
 
@@ -1,6 +1,5 @@
 package org.bukkit.craftbukkit.inventory;
 
-import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.crafting.CustomRecipe;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import org.bukkit.NamespacedKey;
@@ -18,7 +17,7 @@ public class CraftComplexRecipe extends CraftingRecipe implements CraftRecipe, C
     }
 
     @Override
-    public void addToCraftingManager() {
-        MinecraftServer.getServer().getRecipeManager().addRecipe(new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()), this.recipe));
+    public RecipeHolder<?> toMinecraftRecipe() { // Paper - batch recipe changes
+        return new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()), this.recipe);
     }
 }
@@ -98,6 +98,7 @@ public class CraftInventory implements Inventory {
     @Override
     public void setItem(int index, ItemStack item) {
         this.getInventory().setItem(index, CraftItemStack.asNMSCopy(item));
+        io.papermc.paper.inventory.MenuChangeTracker.markChanged(this.getInventory()); // Paper - track changed slots
     }
 
     @Override
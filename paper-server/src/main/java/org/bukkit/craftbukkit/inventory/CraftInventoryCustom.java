@@ -64,8 +64,9 @@ public class CraftInventoryCustom extends CraftInventory {
         }
     }
 
-    static class MinecraftInventory implements Container {
+    static class MinecraftInventory implements Container, io.papermc.paper.inventory.MenuChangeTracker.TrackedContainer { // Paper - track changed slots
         private final NonNullList<ItemStack> items;
+        private long changeCount; // Paper - track changed slots
         private int maxStack = MAX_STACK;
         private final List<HumanEntity> viewers;
         private final String title;
@@ -149,6 +150,7 @@ public class CraftInventoryCustom extends CraftInventory {
             } else {
                 result = CraftItemStack.copyNMSStack(stack, 1);
                 stack.shrink(1);
+                this.changeCount++; // Paper - track changed slots
             }
             return result;
         }
@@ -156,6 +158,7 @@ public class CraftInventoryCustom extends CraftInventory {
         @Override
         public void setItem(int slot, ItemStack stack) {
             this.items.set(slot, stack);
+            this.changeCount++; // Paper - track changed slots
             if (stack != ItemStack.EMPTY && this.getMaxStackSize() > 0 && stack.getCount() > this.getMaxStackSize()) {
                 stack.setCount(this.getMaxStackSize());
             }
@@ -172,7 +175,16 @@ public class CraftInventoryCustom extends CraftInventory {
         }
 
         @Override
-        public void setChanged() {}
+        public void setChanged() {
+            this.changeCount++; // Paper - track changed slots
+        }
+
+        // Paper start - track changed slots
+        @Override
+        public long changeCount() {
+            return this.changeCount;
+        }
+        // Paper end - track changed slots
 
         @Override
         public boolean stillValid(Player player) {
@@ -224,6 +236,7 @@ public class CraftInventoryCustom extends CraftInventory {
         @Override
         public void clearContent() {
             this.items.clear();
+            this.changeCount++; // Paper - track changed slots
         }
 
         @Override
@@ -16,7 +16,18 @@ import org.bukkit.inventory.recipe.CraftingBookCategory;
 
 public interface CraftRecipe extends Recipe {
 
-    void addToCraftingManager();
+    // Paper start - batch recipe changes
+    default void addToCraftingManager() {
+        net.minecraft.server.MinecraftServer.getServer().getRecipeManager().addRecipe(this.toMinecraftRecipe());
+    }
+
+    /**
+     * Converts this recipe to a vanilla recipe, without adding it.
+     *
+     * @throws IllegalArgumentException if the recipe is invalid
+     */
+    net.minecraft.world.item.crafting.RecipeHolder<?> toMinecraftRecipe();
+    // Paper end - batch recipe changes
 
     default Optional<Ingredient> toNMSOptional(RecipeChoice bukkit, boolean requireNotEmpty) {
         return (bukkit == null || bukkit == RecipeChoice.empty()) ? Optional.empty() : Optional.of(this.toNMS(bukkit, requireNotEmpty)); // Paper - support "empty" choices
@@ -2,7 +2,6 @@ package org.bukkit.craftbukkit.inventory;
 
 import java.util.ArrayList;
 import java.util.List;
-import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import org.bukkit.NamespacedKey;
@@ -37,13 +36,13 @@ public class CraftShapelessRecipe extends ShapelessRecipe implements CraftRecipe
     }
 
     @Override
-    public void addToCraftingManager() {
+    public RecipeHolder<?> toMinecraftRecipe() { // Paper - batch recipe changes
         List<org.bukkit.inventory.RecipeChoice> ingred = this.getChoiceList();
         List<Ingredient> data = new ArrayList<>(ingred.size());
         for (org.bukkit.inventory.RecipeChoice i : ingred) {
             data.add(this.toNMS(i, true));
         }
 
-        MinecraftServer.getServer().getRecipeManager().addRecipe(new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()), new net.minecraft.world.item.crafting.ShapelessRecipe(this.getGroup(), CraftRecipe.getCategory(this.getCategory()), CraftItemStack.asNMSCopy(this.getResult()), data)));
+        return new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()), new net.minecraft.world.item.crafting.ShapelessRecipe(this.getGroup(), CraftRecipe.getCategory(this.getCategory()), CraftItemStack.asNMSCopy(this.getResult()), data));
     }
 }
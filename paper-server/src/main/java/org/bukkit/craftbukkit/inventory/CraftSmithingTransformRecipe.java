@@ -1,6 +1,5 @@
 package org.bukkit.craftbukkit.inventory;
 
-import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import net.minecraft.world.item.crafting.TransmuteResult;
 import org.bukkit.NamespacedKey;
@@ -27,7 +26,7 @@ public class CraftSmithingTransformRecipe extends SmithingTransformRecipe implem
     }
 
     @Override
-    public void addToCraftingManager() {
+    public RecipeHolder<?> toMinecraftRecipe() { // Paper - batch recipe changes
         ItemStack result = this.getResult();
         final net.minecraft.world.item.ItemStack nmsStack = CraftItemStack.asNMSCopy(result);
         final net.minecraft.world.item.crafting.SmithingTransformRecipe recipe = new net.minecraft.world.item.crafting.SmithingTransformRecipe(
@@ -37,6 +36,6 @@ public class CraftSmithingTransformRecipe extends SmithingTransformRecipe implem
             new TransmuteResult(nmsStack.getItemHolder(), nmsStack.getCount(), nmsStack.getComponentsPatch())
             , this.willCopyDataComponents()
         );
-        MinecraftServer.getServer().getRecipeManager().addRecipe(new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()), recipe)); // Paper - Option to prevent data components copy
+        return new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()), recipe); // Paper - Option to prevent data components copy
     }
 }
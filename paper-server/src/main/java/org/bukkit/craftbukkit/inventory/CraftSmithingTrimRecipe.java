@@ -1,6 +1,5 @@
 package org.bukkit.craftbukkit.inventory;
 
-import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import org.bukkit.NamespacedKey;
 import org.bukkit.craftbukkit.inventory.trim.CraftTrimPattern;
@@ -28,7 +27,7 @@ public class CraftSmithingTrimRecipe extends SmithingTrimRecipe implements Craft
     }
 
     @Override
-    public void addToCraftingManager() {
+    public RecipeHolder<?> toMinecraftRecipe() { // Paper - batch recipe changes
         final net.minecraft.world.item.crafting.SmithingTrimRecipe recipe = new net.minecraft.world.item.crafting.SmithingTrimRecipe(
             this.toNMS(this.getTemplate(), false),
             this.toNMS(this.getBase(), false),
@@ -36,6 +35,6 @@ public class CraftSmithingTrimRecipe extends SmithingTrimRecipe implements Craft
             CraftTrimPattern.bukkitToMinecraftHolder(this.getTrimPattern()),
             this.willCopyDataComponents()
         );
-        MinecraftServer.getServer().getRecipeManager().addRecipe(new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()), recipe));
+        return new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()), recipe);
     }
 }
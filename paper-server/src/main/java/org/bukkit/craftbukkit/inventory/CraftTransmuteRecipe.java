@@ -1,7 +1,6 @@
 package org.bukkit.craftbukkit.inventory;
 
 import net.minecraft.core.Holder;
-import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import net.minecraft.world.item.crafting.TransmuteResult;
@@ -27,16 +26,14 @@ public class CraftTransmuteRecipe extends TransmuteRecipe implements CraftRecipe
     }
 
     @Override
-    public void addToCraftingManager() {
+    public RecipeHolder<?> toMinecraftRecipe() { // Paper - batch recipe changes
         final ItemStack unwrappedInternalStack = CraftItemStack.unwrap(this.getResult());
-        MinecraftServer.getServer().getRecipeManager().addRecipe(
-            new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()),
-                new net.minecraft.world.item.crafting.TransmuteRecipe(this.getGroup(),
-                    CraftRecipe.getCategory(this.getCategory()),
-                    this.toNMS(this.getInput(), true),
-                    this.toNMS(this.getMaterial(), true),
-                    new TransmuteResult(unwrappedInternalStack.getItemHolder(), unwrappedInternalStack.getCount(), unwrappedInternalStack.getComponentsPatch())
-                )
+        return new RecipeHolder<>(CraftRecipe.toMinecraft(this.getKey()),
+            new net.minecraft.world.item.crafting.TransmuteRecipe(this.getGroup(),
+                CraftRecipe.getCategory(this.getCategory()),
+                this.toNMS(this.getInput(), true),
+                this.toNMS(this.getMaterial(), true),
+                new TransmuteResult(unwrappedInternalStack.getItemHolder(), unwrappedInternalStack.getCount(), unwrappedInternalStack.getComponentsPatch())
             )
         );
     }
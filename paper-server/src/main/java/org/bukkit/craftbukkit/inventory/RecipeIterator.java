@@ -30,7 +30,6 @@ public class RecipeIterator implements Iterator<Recipe> {
     public void remove() {
         MinecraftServer.getServer().getRecipeManager().recipes.byKey.remove(this.currentRecipe.id());
         this.recipes.remove();
-        MinecraftServer.getServer().getRecipeManager().finalizeRecipeLoading();
-        MinecraftServer.getServer().getPlayerList().reloadRecipes();
+        MinecraftServer.getServer().getRecipeManager().finalizeRecipeLoading(); // Paper - batch recipe changes - also resends recipes at the end of the tick
     }
 }
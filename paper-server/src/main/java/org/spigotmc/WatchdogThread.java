@@ -23,6 +23,7 @@ public class WatchdogThread extends ca.spottedleaf.moonrise.common.util.TickThre
     private long lastEarlyWarning; // Paper - Keep track of short dump times to avoid spamming console with short dumps
     private volatile long lastTick;
     private volatile boolean stopping;
+    private final io.papermc.paper.util.LagSpikeSampler lagSpikeSampler = new io.papermc.paper.util.LagSpikeSampler(); // Paper - lag spike sampler
 
     private WatchdogThread(long timeoutTime, boolean restart) {
         super("Paper Watchdog Thread");
@@ -149,13 +150,28 @@ public class WatchdogThread extends ca.spottedleaf.moonrise.common.util.TickThre
             }
 
             try {
-                sleep(1000); // Paper - Reduce check time to every second instead of every ten seconds, more consistent and allows for short timeout
+                this.sleepAndSample(1000); // Paper - Reduce check time to every second instead of every ten seconds, more consistent and allows for short timeout; lag spike sampler
             } catch (InterruptedException ex) {
                 this.interrupt();
             }
         }
     }
 
+    // Paper start - lag spike sampler
+    private void sleepAndSample(long millis) throws InterruptedException {
+        final long end = WatchdogThread.monotonicMillis() + millis;
+        long now;
+        while ((now = WatchdogThread.monotonicMillis()) < end) {
+            final MinecraftServer server = MinecraftServer.getServer();
+            long wait = end - now;
+            if (WatchdogThread.hasStarted && this.lastTick != 0 && server.isRunning()) {
+                wait = Math.min(wait, this.lagSpikeSampler.poll(server.serverThread, this.lastTick, server.getTickCount(), now));
+            }
+            sleep(wait);
+        }
+    }
+    // Paper end - lag spike sampler
+
     private static void dumpThread(ThreadInfo thread, Logger logger) {
         logger.log(Level.SEVERE, "------------------------------");
 
@@ -0,0 +1,155 @@
+package alternate.current.wire;
+
+import alternate.current.wire.WireHandler.Directions;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.RedStoneWireBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@VanillaFeature
+public class NodeMapTest {
+
+    private static final BlockState WIRE = Blocks.REDSTONE_WIRE.defaultBlockState();
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private static Node node(final BlockPos pos, final BlockState state) {
+        return new Node(null).set(pos, state, true);
+    }
+
+    private static void link(final Node node, final Node neighbor, final int iDir) {
+        node.neighbors[iDir] = neighbor;
+        neighbor.neighbors[Directions.iOpposite(iDir)] = node;
+    }
+
+    // A wire connected to a wire one block lower through the air next to it.
+    private record Network(NodeMap nodes, WireNode wire, Node side, WireNode lower) {
+
+        static Network create(final BlockPos pos) {
+            final NodeMap nodes = new NodeMap();
+            final WireNode wire = new WireNode(null, pos, WIRE);
+            final Node side = node(pos.east(), AIR);
+            final WireNode lower = new WireNode(null, pos.east().below(), WIRE);
+
+            link(wire, side, Directions.EAST);
+            link(side, lower, Directions.DOWN);
+            nodes.put(wire.pos, wire);
+            nodes.put(side.pos, side);
+            nodes.put(lower.pos, lower);
+
+            // as if the connections were computed in an earlier update
+            wire.connectionsInvalid = false;
+            lower.connectionsInvalid = false;
+
+            return new Network(nodes, wire, side, lower);
+        }
+    }
+
+    @Test
+    public void testUnchangedNodesAreReused() {
+        final Network network = Network.create(new BlockPos(0, 64, 0));
+
+        network.nodes().invalidate(network.wire().pos, WIRE);
+        network.nodes().invalidate(network.side().pos, AIR);
+
+        assertSame(network.wire(), network.nodes().get(network.wire().pos));
+        assertSame(network.side(), network.nodes().get(network.side().pos));
+        assertFalse(network.wire().invalid);
+        assertFalse(network.side().invalid);
+        assertFalse(network.wire().connectionsInvalid);
+    }
+
+    @Test
+    public void testBlockChangeInvalidatesNode() {
+        final Network network = Network.create(new BlockPos(0, 64, 0));
+
+        // glass does not conduct power, so the connections are not affected
+        network.nodes().invalidate(network.side().pos, Blocks.GLASS.defaultBlockState());
+
+        assertTrue(network.side().invalid);
+        assertFalse(network.wire().connectionsInvalid);
+        assertFalse(network.lower().connectionsInvalid);
+
+        // a wire changing power does not affect the connections either
+        network.nodes().invalidate(network.lower().pos, WIRE.setValue(RedStoneWireBlock.POWER, 15));
+
+        assertTrue(network.lower().invalid);
+        assertFalse(network.wire().connectionsInvalid);
+    }
+
+    @Test
+    public void testBlockChangeInvalidatesConnections() {
+        final Network network = Network.create(new BlockPos(0, 64, 0));
+
+        network.nodes().invalidate(network.side().pos, Blocks.STONE.defaultBlockState());
+
+        assertTrue(network.side().invalid);
+        assertTrue(network.wire().connectionsInvalid);
+        assertTrue(network.lower().connectionsInvalid);
+    }
+
+    @Test
+    public void testWireRemovalInvalidatesConnections() {
+        final Network network = Network.create(new BlockPos(0, 64, 0));
+
+        network.nodes().invalidate(network.lower().pos, AIR);
+
+        assertTrue(network.lower().invalid);
+        assertTrue(network.wire().connectionsInvalid);
+    }
+
+    @Test
+    public void testChunkUnloadEvictsNodes() {
+        // the wire is in chunk 0, 0, the blocks next to it in chunk 1, 0
+        final Network network = Network.create(new BlockPos(15, 64, 0));
+
+        network.nodes().evictChunk(2, 0);
+
+        assertSame(network.wire(), network.nodes().get(network.wire().pos));
+        assertFalse(network.wire().connectionsInvalid);
+
+        network.nodes().evictChunk(1, 0);
+
+        assertSame(network.wire(), network.nodes().get(network.wire().pos));
+        assertNull(network.nodes().get(network.side().pos));
+        assertNull(network.nodes().get(network.lower().pos));
+        assertTrue(network.side().invalid);
+        assertTrue(network.lower().invalid);
+        assertTrue(network.wire().connectionsInvalid);
+
+        network.nodes().evictChunk(0, 0);
+
+        assertTrue(network.nodes().isEmpty());
+        assertTrue(network.wire().invalid);
+    }
+
+    @Test
+    public void testRemovedNodesAreNotEvicted() {
+        final Network network = Network.create(new BlockPos(15, 64, 0));
+
+        assertSame(network.side(), network.nodes().remove(network.side().pos));
+        network.nodes().evictChunk(1, 0);
+
+        assertFalse(network.side().invalid, "a node no longer in the map must not be touched");
+        assertTrue(network.lower().invalid);
+        assertEquals(1, network.nodes().size());
+    }
+
+    @Test
+    public void testUntrackedChangeInvalidatesConnections() {
+        final Network network = Network.create(new BlockPos(0, 64, 0));
+
+        // found out when the node is revalidated, rather than through Level#setBlock
+        NodeMap.onStateChange(network.side(), Blocks.STONE.defaultBlockState());
+
+        assertTrue(network.wire().connectionsInvalid);
+        assertTrue(network.lower().connectionsInvalid);
+    }
+}
@@ -0,0 +1,162 @@
+package ca.spottedleaf.moonrise.patches.starlight.light;
+
+import io.papermc.paper.util.simd.LayerMasks;
+import java.util.Random;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.LightChunk;
+import net.minecraft.world.level.chunk.LightChunkGetter;
+import org.bukkit.support.RegistryHelper;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@VanillaFeature
+public class SkyLightLayersTest {
+
+    private static final int MIN_SECTION = 0;
+    private static final int MAX_SECTION = 5;
+    private static final int SEEDS = 16;
+
+    // blocks letting some light through, or only through some of their faces
+    private static final BlockState[] PARTIAL_BLOCKS = {
+        Blocks.GLASS.defaultBlockState(),
+        Blocks.OAK_LEAVES.defaultBlockState(),
+        Blocks.WATER.defaultBlockState(),
+        Blocks.COBWEB.defaultBlockState(),
+        Blocks.SMOOTH_STONE_SLAB.defaultBlockState(),
+        Blocks.OAK_STAIRS.defaultBlockState(),
+        Blocks.DIRT_PATH.defaultBlockState()
+    };
+
+    private static BlockState randomBlock(final Random random) {
+        return random.nextInt(4) == 0 ? Blocks.STONE.defaultBlockState() : PARTIAL_BLOCKS[random.nextInt(PARTIAL_BLOCKS.length)];
+    }
+
+    // Terrain in the lowest section and a floating roof in section 4. Sections 1 to 3 are empty, so section 2 has
+    // no nibble, which the column pass skips.
+    private static LevelChunkSection[] terrain(final long seed) {
+        final Random random = new Random(seed);
+        final LevelChunkSection[] sections = new LevelChunkSection[MAX_SECTION - MIN_SECTION + 1];
+        for (int i = 0; i < sections.length; ++i) {
+            sections[i] = new LevelChunkSection(RegistryHelper.getBiomes(), null, null, i + MIN_SECTION);
+        }
+
+        final LevelChunkSection ground = sections[0];
+        for (int x = 0; x < 16; ++x) {
+            for (int z = 0; z < 16; ++z) {
+                final int height = 2 + random.nextInt(12);
+                for (int y = 0; y < height; ++y) {
+                    // caves
+                    if (y == 0 || random.nextInt(6) != 0) {
+                        ground.setBlockState(x, y, z, Blocks.STONE.defaultBlockState());
+                    }
+                }
+                for (int y = height; y < 16; ++y) {
+                    if (random.nextInt(8) == 0) {
+                        ground.setBlockState(x, y, z, randomBlock(random));
+                    }
+                }
+            }
+        }
+
+        final LevelChunkSection roof = sections[4];
+        final int minX = random.nextInt(8);
+        final int minZ = random.nextInt(8);
+        final int roofY = random.nextInt(16);
+        for (int x = minX; x < minX + 8; ++x) {
+            for (int z = minZ; z < minZ + 8; ++z) {
+                roof.setBlockState(x, roofY, z, randomBlock(random));
+            }
+        }
+        return sections;
+    }
+
+    private static SWMRNibbleArray[] light(final LevelChunkSection[] sections, final LayerMasks layerMasks) {
+        final Level level = mock(Level.class);
+        when(level.getMinSectionY()).thenReturn(MIN_SECTION);
+        when(level.getMaxSectionY()).thenReturn(MAX_SECTION);
+
+        final ChunkAccess chunk = mock(ChunkAccess.class);
+        when(chunk.getPos()).thenReturn(new ChunkPos(0, 0));
+        when(chunk.getSections()).thenReturn(sections);
+        final SWMRNibbleArray[][] nibbles = new SWMRNibbleArray[1][];
+        doAnswer(invocation -> {
+            nibbles[0] = invocation.getArgument(0);
+            return null;
+        }).when(chunk).starlight$setSkyNibbles(any());
+
+        // the neighbouring chunks are not loaded
+        final LightChunkGetter lightAccess = new LightChunkGetter() {
+            @Override
+            public LightChunk getChunkForLighting(final int chunkX, final int chunkZ) {
+                return null;
+            }
+
+            @Override
+            public BlockGetter getLevel() {
+                return level;
+            }
+        };
+
+        new SkyStarLightEngine(level, layerMasks).light(lightAccess, chunk, StarLightEngine.getEmptySectionsForChunk(chunk));
+        return nibbles[0];
+    }
+
+    private static void assertSameLight(final long seed, final SWMRNibbleArray[] expected, final SWMRNibbleArray[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; ++i) {
+            final String section = "seed " + seed + ", section " + (i + MIN_SECTION - 1);
+            assertEquals(expected[i].isNullNibbleVisible(), actual[i].isNullNibbleVisible(), section);
+            assertEquals(expected[i].isInitialisedVisible(), actual[i].isInitialisedVisible(), section);
+            for (int index = 0; index < 16 * 16 * 16; ++index) {
+                assertEquals(expected[i].getVisible(index), actual[i].getVisible(index), section + ", index " + index);
+            }
+        }
+    }
+
+    private static void assertLayersMatchColumns(final LayerMasks layerMasks) {
+        for (long seed = 0; seed < SEEDS; ++seed) {
+            final LevelChunkSection[] sections = terrain(seed);
+            final SWMRNibbleArray[] columns = light(sections, null);
+            final SWMRNibbleArray[] layers = light(sections, layerMasks);
+
+            // the terrain should not be trivially lit
+            int partiallyLit = 0;
+            for (int index = 0; index < 16 * 16 * 16; ++index) {
+                final int light = columns[1].getVisible(index);
+                if (light > 0 && light < 15) {
+                    ++partiallyLit;
+                }
+            }
+            assertTrue(partiallyLit > 0, "seed " + seed);
+            assertTrue(columns[3].isNullNibbleVisible(), "seed " + seed);
+
+            assertSameLight(seed, columns, layers);
+        }
+    }
+
+    @Test
+    public void testScalarLayersMatchColumns() {
+        assertLayersMatchColumns(LayerMasks.scalar());
+    }
+
+    @Test
+    public void testVectorisedLayersMatchColumns() {
+        final LayerMasks vectorised = LayerMasks.vectorised();
+        assumeTrue(vectorised != null, "jdk.incubator.vector is not present, run with --add-modules=jdk.incubator.vector");
+        assertLayersMatchColumns(vectorised);
+    }
+}
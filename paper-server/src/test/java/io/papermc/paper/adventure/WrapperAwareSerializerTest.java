@@ -0,0 +1,82 @@
+package io.papermc.paper.adventure;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.JavaOps;
+import com.mojang.serialization.JsonOps;
+import java.util.List;
+import java.util.stream.Stream;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.Style;
+import net.minecraft.network.chat.ComponentSerialization;
+import org.bukkit.support.RegistryHelper;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static io.papermc.paper.adventure.AdventureCodecsTest.PARAMETERIZED_NAME;
+import static net.kyori.adventure.text.Component.text;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@VanillaFeature
+class WrapperAwareSerializerTest {
+
+    private final WrapperAwareSerializer serializer = new WrapperAwareSerializer(
+        () -> RegistryHelper.getRegistry().createSerializationContext(JavaOps.INSTANCE)
+    );
+
+    @ParameterizedTest(name = PARAMETERIZED_NAME)
+    @MethodSource("testComponents")
+    void testSerializeMatchesCodecs(final Component component) {
+        assertEquals(
+            this.toJson(ComponentSerialization.CODEC, this.serializer.serializeWithCodecs(component)),
+            this.toJson(ComponentSerialization.CODEC, this.serializer.serialize(component))
+        );
+    }
+
+    @ParameterizedTest(name = PARAMETERIZED_NAME)
+    @MethodSource("testComponents")
+    void testDeserializeMatchesCodecs(final Component component) {
+        final net.minecraft.network.chat.Component vanilla = this.serializer.serializeWithCodecs(component);
+        assertEquals(this.serializer.deserializeWithCodecs(vanilla), this.serializer.deserialize(vanilla));
+    }
+
+    @ParameterizedTest(name = PARAMETERIZED_NAME)
+    @MethodSource("io.papermc.paper.adventure.AdventureCodecsTest#testStyles")
+    void testStyleMatchesCodecs(final Style style) {
+        final net.minecraft.network.chat.Style vanilla = this.serializer.serializeStyle(style);
+        assertEquals(
+            this.toJson(AdventureCodecs.STYLE_MAP_CODEC.codec(), style),
+            this.toJson(net.minecraft.network.chat.Style.Serializer.CODEC, vanilla)
+        );
+        assertEquals(style, this.serializer.deserializeStyle(vanilla));
+    }
+
+    @Test
+    void testCachedConversion() {
+        final WrapperAwareSerializer cached = new WrapperAwareSerializer(
+            () -> RegistryHelper.getRegistry().createSerializationContext(JavaOps.INSTANCE), true
+        );
+        final Component component = text("Hello, world.");
+        assertSame(cached.serialize(component), cached.serialize(component));
+    }
+
+    static Stream<Component> testComponents() {
+        return Stream.of(
+            AdventureCodecsTest.testTexts(),
+            AdventureCodecsTest.testTranslatables(),
+            AdventureCodecsTest.testKeybinds(),
+            AdventureCodecsTest.testScores(),
+            AdventureCodecsTest.testSelectors(),
+            AdventureCodecsTest.testBlockNbts(),
+            AdventureCodecsTest.testEntityNbts(),
+            AdventureCodecsTest.testStorageNbts()
+        ).flatMap(List::stream);
+    }
+
+    private <T> JsonElement toJson(final Codec<T> codec, final T value) {
+        return codec.encodeStart(RegistryHelper.getRegistry().createSerializationContext(JsonOps.INSTANCE), value).getOrThrow();
+    }
+}
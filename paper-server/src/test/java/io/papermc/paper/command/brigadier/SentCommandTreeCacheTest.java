@@ -0,0 +1,88 @@
+package io.papermc.paper.command.brigadier;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.tree.CommandNode;
+import com.mojang.brigadier.tree.RootCommandNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.minecraft.network.protocol.game.ClientboundCommandsPacket;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SentCommandTreeCacheTest {
+
+    private final CommandDispatcher<net.minecraft.commands.CommandSourceStack> dispatcher = new CommandDispatcher<>();
+    private final SentCommandTreeCache cache = new SentCommandTreeCache(root -> Mockito.mock(ClientboundCommandsPacket.class));
+    private final AtomicInteger builds = new AtomicInteger();
+
+    public SentCommandTreeCacheTest() {
+        this.dispatcher.register(LiteralArgumentBuilder.literal("help"));
+        this.dispatcher.register(LiteralArgumentBuilder.<net.minecraft.commands.CommandSourceStack>literal("kick").requires(source -> source.hasPermission(2)));
+        this.dispatcher.register(LiteralArgumentBuilder.<net.minecraft.commands.CommandSourceStack>literal("stop").requires(source -> source.hasPermission(4)));
+    }
+
+    private static net.minecraft.commands.CommandSourceStack source(final int permissionLevel) {
+        final net.minecraft.commands.CommandSourceStack source = Mockito.mock(net.minecraft.commands.CommandSourceStack.class);
+        Mockito.when(source.hasPermission(Mockito.anyInt())).thenAnswer(invocation -> invocation.<Integer>getArgument(0) <= permissionLevel);
+        return source;
+    }
+
+    private SentCommandTreeCache.Tree tree(final net.minecraft.commands.CommandSourceStack source) {
+        final List<CommandNode<net.minecraft.commands.CommandSourceStack>> rootChildren = new ArrayList<>(this.dispatcher.getRoot().getChildren());
+        return this.cache.get(rootChildren, source, true, () -> {
+            this.builds.incrementAndGet();
+            final RootCommandNode<net.minecraft.commands.CommandSourceStack> root = new RootCommandNode<>();
+            for (final CommandNode<net.minecraft.commands.CommandSourceStack> node : rootChildren) {
+                if (node.canUse(source)) {
+                    root.addChild(node);
+                }
+            }
+            return root;
+        });
+    }
+
+    @Test
+    public void testSharedBetweenSameUsableNodes() {
+        final SentCommandTreeCache.Tree first = this.tree(source(2));
+        // level 3 can use the same nodes as level 2
+        assertSame(first, this.tree(source(3)));
+        assertEquals(Set.of("help", "kick"), first.labels());
+
+        final SentCommandTreeCache.Tree op = this.tree(source(4));
+        assertNotSame(first, op);
+        assertEquals(Set.of("help", "kick", "stop"), op.labels());
+        assertEquals(2, this.builds.get());
+    }
+
+    @Test
+    public void testRebuiltAfterRegistration() {
+        final SentCommandTreeCache.Tree before = this.tree(source(0));
+        this.dispatcher.register(LiteralArgumentBuilder.literal("spawn"));
+        final SentCommandTreeCache.Tree after = this.tree(source(0));
+        assertNotSame(before, after);
+        assertEquals(Set.of("help", "spawn"), after.labels());
+    }
+
+    @Test
+    public void testRebuiltAfterInvalidation() {
+        final SentCommandTreeCache.Tree before = this.tree(source(0));
+        this.cache.invalidate();
+        assertNotSame(before, this.tree(source(0)));
+    }
+
+    @Test
+    public void testFilteredPackets() {
+        final SentCommandTreeCache.Tree tree = this.tree(source(4));
+        final ClientboundCommandsPacket full = tree.packet(tree.labels());
+        final ClientboundCommandsPacket filtered = tree.packet(Set.of("help"));
+        assertNotSame(full, filtered);
+        assertSame(filtered, tree.packet(Set.of("help")));
+    }
+}
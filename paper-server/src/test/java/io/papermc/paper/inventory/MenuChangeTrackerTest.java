@@ -0,0 +1,85 @@
+package io.papermc.paper.inventory;
+
+import java.util.BitSet;
+import java.util.List;
+import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.item.Items;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@VanillaFeature
+public class MenuChangeTrackerTest {
+
+    private static final int INTERVAL = 20;
+
+    private final TrackedSimpleContainer tracked = new TrackedSimpleContainer(2);
+    private final SimpleContainer untracked = new SimpleContainer(2);
+    private final MenuChangeTracker tracker = new MenuChangeTracker(List.of(
+        new Slot(this.tracked, 0, 0, 0),
+        new Slot(this.tracked, 1, 0, 0),
+        new Slot(this.untracked, 0, 0, 0),
+        new Slot(this.untracked, 1, 0, 0)
+    ));
+
+    private static BitSet slots(final int... slots) {
+        final BitSet set = new BitSet();
+        for (final int slot : slots) {
+            set.set(slot);
+        }
+        return set;
+    }
+
+    @Test
+    public void testChangedContainers() {
+        // the first comparison always compares every slot
+        assertNull(this.tracker.comparedSlots(0, INTERVAL));
+        assertEquals(slots(2, 3), this.tracker.comparedSlots(1, INTERVAL));
+
+        this.tracked.setItem(1, Items.DIAMOND.getDefaultInstance());
+        assertEquals(slots(0, 1, 2, 3), this.tracker.comparedSlots(2, INTERVAL));
+        assertEquals(slots(2, 3), this.tracker.comparedSlots(3, INTERVAL));
+    }
+
+    @Test
+    public void testFullComparison() {
+        assertNull(this.tracker.comparedSlots(0, INTERVAL));
+        assertEquals(slots(2, 3), this.tracker.comparedSlots(INTERVAL - 1, INTERVAL));
+        assertNull(this.tracker.comparedSlots(INTERVAL, INTERVAL));
+
+        this.tracker.compareAll();
+        assertNull(this.tracker.comparedSlots(INTERVAL + 1, INTERVAL));
+        assertEquals(slots(2, 3), this.tracker.comparedSlots(INTERVAL + 2, INTERVAL));
+    }
+
+    @Test
+    public void testComparedSlotsCount() {
+        this.tracker.comparedSlots(100, INTERVAL);
+        this.tracker.comparedSlots(101, INTERVAL);
+        this.tracker.comparedSlots(102, INTERVAL);
+        assertEquals(2, MenuChangeTracker.slotsComparedLastTick());
+    }
+
+    private static final class TrackedSimpleContainer extends SimpleContainer implements MenuChangeTracker.TrackedContainer {
+
+        private long changeCount;
+
+        private TrackedSimpleContainer(final int size) {
+            super(size);
+        }
+
+        @Override
+        public void setChanged() {
+            this.changeCount++;
+            super.setChanged();
+        }
+
+        @Override
+        public long changeCount() {
+            return this.changeCount;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.papermc.paper.inventory.recipe;
+
+import ca.spottedleaf.moonrise.common.util.TickThread;
+import java.util.List;
+import java.util.function.Consumer;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.players.PlayerList;
+import net.minecraft.world.flag.FeatureFlags;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.crafting.CraftingBookCategory;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.ShapelessRecipe;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.craftbukkit.inventory.CraftShapedRecipe;
+import org.bukkit.craftbukkit.inventory.CraftShapelessRecipe;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.support.RegistryHelper;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@VanillaFeature
+public class RecipeBatchTest {
+
+    private static ResourceKey<Recipe<?>> key(final String name) {
+        return ResourceKey.create(Registries.RECIPE, ResourceLocation.fromNamespaceAndPath("test", name));
+    }
+
+    private static RecipeHolder<?> recipe(final String name) {
+        return new RecipeHolder<>(key(name), new ShapelessRecipe("", CraftingBookCategory.MISC, Items.DIRT.getDefaultInstance(), List.of(Ingredient.of(Items.STICK))));
+    }
+
+    // Recipes may only be changed on a tick thread. Static mocks only apply to the thread creating them, so the
+    // server returning the mocked player list is created on that thread as well.
+    private static void onTickThread(final Consumer<PlayerList> test) throws Throwable {
+        final Throwable[] failure = new Throwable[1];
+        final TickThread thread = new TickThread(() -> {
+            try (final MockedStatic<MinecraftServer> server = mockStatic(MinecraftServer.class)) {
+                final MinecraftServer minecraftServer = mock(MinecraftServer.class);
+                final PlayerList playerList = mock(PlayerList.class);
+                when(minecraftServer.getPlayerList()).thenReturn(playerList);
+                server.when(MinecraftServer::getServer).thenReturn(minecraftServer);
+
+                test.accept(playerList);
+            } catch (final Throwable throwable) {
+                failure[0] = throwable;
+            }
+        }, "Recipe Batch Test");
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private static RecipeManager recipeManager() {
+        final RecipeManager recipeManager = new RecipeManager(RegistryHelper.getRegistry());
+        recipeManager.clearRecipes();
+        recipeManager.finalizeRecipeLoading(FeatureFlags.VANILLA_SET);
+        return recipeManager;
+    }
+
+    @Test
+    public void testBatchSendsSingleUpdate() throws Throwable {
+        onTickThread(playerList -> {
+            final RecipeManager recipeManager = recipeManager();
+            recipeManager.batchChanges(() -> {
+                recipeManager.addRecipe(recipe("first"));
+                recipeManager.addRecipe(recipe("second"));
+                recipeManager.addRecipe(recipe("third"));
+                recipeManager.removeRecipe(key("first"));
+                verify(playerList, never()).reloadRecipes();
+            });
+            verify(playerList, times(1)).reloadRecipes();
+            assertFalse(recipeManager.byKey(key("first")).isPresent());
+            assertTrue(recipeManager.byKey(key("second")).isPresent());
+            assertTrue(recipeManager.byKey(key("third")).isPresent());
+
+            // the batch already sent its changes
+            recipeManager.sendPendingChanges();
+            verify(playerList, times(1)).reloadRecipes();
+        });
+    }
+
+    @Test
+    public void testNestedBatchesSendSingleUpdate() throws Throwable {
+        onTickThread(playerList -> {
+            final RecipeManager recipeManager = recipeManager();
+            recipeManager.batchChanges(() -> {
+                recipeManager.addRecipe(recipe("first"));
+                recipeManager.batchChanges(() -> recipeManager.addRecipe(recipe("second")));
+                verify(playerList, never()).reloadRecipes();
+            });
+            verify(playerList, times(1)).reloadRecipes();
+        });
+    }
+
+    @Test
+    public void testChangesSentOnceAtEndOfTick() throws Throwable {
+        onTickThread(playerList -> {
+            final RecipeManager recipeManager = recipeManager();
+            recipeManager.addRecipe(recipe("first"));
+            recipeManager.addRecipe(recipe("second"));
+            verify(playerList, never()).reloadRecipes();
+
+            recipeManager.sendPendingChanges();
+            recipeManager.sendPendingChanges();
+            verify(playerList, times(1)).reloadRecipes();
+        });
+    }
+
+    @Test
+    public void testReloadDropsPendingUpdate() throws Throwable {
+        onTickThread(playerList -> {
+            final RecipeManager recipeManager = recipeManager();
+            recipeManager.addRecipe(recipe("first"));
+            // a full reload resends everything itself
+            recipeManager.finalizeRecipeLoading(FeatureFlags.VANILLA_SET);
+
+            recipeManager.sendPendingChanges();
+            verify(playerList, never()).reloadRecipes();
+        });
+    }
+
+    @Test
+    public void testConversionDoesNotAddRecipe() {
+        // modifyRecipes converts every addition before removing or adding anything, which needs conversion to have no side effects
+        final CraftShapelessRecipe recipe = new CraftShapelessRecipe(new NamespacedKey("test", "valid"), new ItemStack(Material.DIRT));
+        recipe.addIngredient(Material.STICK);
+        final RecipeHolder<?> holder = recipe.toMinecraftRecipe();
+        assertEquals(key("valid"), holder.id());
+    }
+
+    @Test
+    public void testInvalidRecipeFailsConversion() {
+        // the only ingredient is undefined, which leaves an empty pattern
+        final CraftShapedRecipe recipe = new CraftShapedRecipe(new NamespacedKey("test", "invalid"), new ItemStack(Material.DIRT));
+        recipe.shape("a");
+        assertThrows(RuntimeException.class, recipe::toMinecraftRecipe);
+    }
+}
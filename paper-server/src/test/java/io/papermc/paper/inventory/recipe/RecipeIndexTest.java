@@ -0,0 +1,71 @@
+package io.papermc.paper.inventory.recipe;
+
+import java.util.List;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.crafting.CraftingBookCategory;
+import net.minecraft.world.item.crafting.CraftingInput;
+import net.minecraft.world.item.crafting.CraftingRecipe;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RepairItemRecipe;
+import net.minecraft.world.item.crafting.ShapelessRecipe;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@VanillaFeature
+public class RecipeIndexTest {
+
+    private static final RecipeHolder<CraftingRecipe> DIAMOND_STICK = shapeless("diamond_stick", Ingredient.of(Items.DIAMOND), Ingredient.of(Items.STICK));
+    private static final RecipeHolder<CraftingRecipe> REPAIR = holder("repair", new RepairItemRecipe(CraftingBookCategory.MISC));
+    private static final RecipeHolder<CraftingRecipe> STICKS = shapeless("sticks", Ingredient.of(Items.STICK), Ingredient.of(Items.STICK));
+    private static final RecipeHolder<CraftingRecipe> NAMED_DIAMOND = shapeless("named_diamond", Ingredient.ofStacks(List.of(named(Items.DIAMOND.getDefaultInstance()))));
+
+    private final RecipeIndex<CraftingInput, CraftingRecipe> index = new RecipeIndex<>(List.of(DIAMOND_STICK, REPAIR, STICKS, NAMED_DIAMOND));
+
+    private static RecipeHolder<CraftingRecipe> holder(final String name, final CraftingRecipe recipe) {
+        return new RecipeHolder<>(ResourceKey.create(Registries.RECIPE, ResourceLocation.fromNamespaceAndPath("test", name)), recipe);
+    }
+
+    private static RecipeHolder<CraftingRecipe> shapeless(final String name, final Ingredient... ingredients) {
+        return holder(name, new ShapelessRecipe("", CraftingBookCategory.MISC, Items.DIRT.getDefaultInstance(), List.of(ingredients)));
+    }
+
+    private static ItemStack named(final ItemStack stack) {
+        stack.set(DataComponents.CUSTOM_NAME, Component.literal("named"));
+        return stack;
+    }
+
+    private static CraftingInput input(final ItemStack... items) {
+        return CraftingInput.of(items.length, 1, List.of(items));
+    }
+
+    @Test
+    public void testCandidatesAcceptEveryItem() {
+        assertEquals(List.of(DIAMOND_STICK, REPAIR), this.index.candidates(input(Items.STICK.getDefaultInstance(), Items.DIAMOND.getDefaultInstance())));
+        assertEquals(List.of(DIAMOND_STICK, REPAIR, STICKS), this.index.candidates(input(Items.STICK.getDefaultInstance())));
+        // recipes not depending only on their ingredients are always candidates
+        assertEquals(List.of(REPAIR), this.index.candidates(input(Items.DIRT.getDefaultInstance())));
+    }
+
+    @Test
+    public void testMatchingRecipes() {
+        assertEquals(List.of(DIAMOND_STICK), this.index.getRecipesFor(input(Items.DIAMOND.getDefaultInstance(), Items.STICK.getDefaultInstance()), null).toList());
+        assertEquals(List.of(STICKS), this.index.getRecipesFor(input(Items.STICK.getDefaultInstance(), Items.STICK.getDefaultInstance()), null).toList());
+    }
+
+    @Test
+    public void testExactIngredients() {
+        // exact ingredients are indexed by their item, their components are compared when matching
+        assertEquals(List.of(DIAMOND_STICK, REPAIR, NAMED_DIAMOND), this.index.candidates(input(Items.DIAMOND.getDefaultInstance())));
+        assertEquals(List.of(), this.index.getRecipesFor(input(Items.DIAMOND.getDefaultInstance()), null).toList());
+        assertEquals(List.of(NAMED_DIAMOND), this.index.getRecipesFor(input(named(Items.DIAMOND.getDefaultInstance())), null).toList());
+    }
+}
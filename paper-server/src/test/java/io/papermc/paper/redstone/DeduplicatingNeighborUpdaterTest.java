@@ -0,0 +1,136 @@
+package io.papermc.paper.redstone;
+
+import io.papermc.paper.configuration.WorldConfiguration;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.redstone.NeighborUpdater;
+import org.bukkit.craftbukkit.CraftServer;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Normal
+public class DeduplicatingNeighborUpdaterTest {
+
+    private static DeduplicatingNeighborUpdater updater(final boolean deduplicate) {
+        final WorldConfiguration config = mock(WorldConfiguration.class);
+        config.misc = config.new Misc();
+        config.misc.deduplicateNeighborUpdates = deduplicate;
+        final CraftServer server = mock(CraftServer.class);
+        when(server.getPluginManager()).thenReturn(mock(PluginManager.class));
+
+        final Level level = mock(Level.class);
+        when(level.paperConfig()).thenReturn(config);
+        when(level.getCraftServer()).thenReturn(server);
+        return new DeduplicatingNeighborUpdater(level, 1_000_000);
+    }
+
+    // a neighbor update of its own block state, counting how often it ran
+    private static final class TestUpdate {
+
+        private final BlockState state = mock(BlockState.class);
+        private Runnable then = () -> {};
+        private int runs;
+
+        private TestUpdate() {
+            doAnswer(invocation -> {
+                ++this.runs;
+                this.then.run();
+                return null;
+            }).when(this.state).handleNeighborChanged(any(), any(), any(), any(), anyBoolean());
+        }
+
+        private void queue(final NeighborUpdater updater) {
+            updater.neighborChanged(this.state, BlockPos.ZERO, Blocks.STONE, null, false);
+        }
+    }
+
+    @Test
+    public void testDuplicatesDroppedWithinLayer() {
+        final DeduplicatingNeighborUpdater updater = updater(true);
+        final TestUpdate root = new TestUpdate();
+        final TestUpdate first = new TestUpdate();
+        final TestUpdate second = new TestUpdate();
+        final TestUpdate shared = new TestUpdate();
+        root.then = () -> {
+            first.queue(updater);
+            first.queue(updater);
+            second.queue(updater);
+        };
+        // queued once in each of two layers
+        first.then = () -> shared.queue(updater);
+        second.then = () -> shared.queue(updater);
+
+        root.queue(updater);
+
+        assertEquals(1, root.runs);
+        assertEquals(1, first.runs);
+        assertEquals(1, second.runs);
+        assertEquals(2, shared.runs);
+        assertEquals(5, updater.queued());
+        assertEquals(1, updater.suppressed());
+
+        updater.resetCounters();
+        assertEquals(0, updater.queued());
+        assertEquals(0, updater.suppressed());
+    }
+
+    @Test
+    public void testNextLayerUpdatesDelivered() {
+        final DeduplicatingNeighborUpdater updater = updater(true);
+        final TestUpdate root = new TestUpdate();
+        final TestUpdate repeating = new TestUpdate();
+        root.then = () -> repeating.queue(updater);
+        // each update is queued while running the previous one, so always in the next layer
+        repeating.then = () -> {
+            if (repeating.runs < 3) {
+                repeating.queue(updater);
+            }
+        };
+
+        root.queue(updater);
+
+        assertEquals(3, repeating.runs);
+        assertEquals(3, updater.queued());
+        assertEquals(0, updater.suppressed());
+    }
+
+    @Test
+    public void testTopLevelUpdatesNotDropped() {
+        final DeduplicatingNeighborUpdater updater = updater(true);
+        final TestUpdate update = new TestUpdate();
+
+        update.queue(updater);
+        update.queue(updater);
+
+        assertEquals(2, update.runs);
+        assertEquals(0, updater.queued());
+        assertEquals(0, updater.suppressed());
+    }
+
+    @Test
+    public void testDisabled() {
+        final DeduplicatingNeighborUpdater updater = updater(false);
+        final TestUpdate root = new TestUpdate();
+        final TestUpdate first = new TestUpdate();
+        root.then = () -> {
+            first.queue(updater);
+            first.queue(updater);
+        };
+
+        root.queue(updater);
+
+        assertEquals(2, first.runs);
+        assertEquals(0, updater.queued());
+        assertEquals(0, updater.suppressed());
+    }
+}
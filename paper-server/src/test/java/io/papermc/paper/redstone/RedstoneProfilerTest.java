@@ -0,0 +1,81 @@
+package io.papermc.paper.redstone;
+
+import io.papermc.paper.configuration.WorldConfiguration.Misc.RedstoneImplementation;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Normal
+public class RedstoneProfilerTest {
+
+    private static RedstoneProfiler.Result result(final RedstoneProfiler.Results results, final RedstoneImplementation implementation) {
+        return results.implementations().get(implementation.ordinal());
+    }
+
+    @Test
+    public void testBlockUpdatesCountedForInnermostUpdate() {
+        final RedstoneProfiler profiler = new RedstoneProfiler();
+        profiler.start();
+        final long outer = profiler.begin(RedstoneImplementation.ALTERNATE_CURRENT);
+        profiler.blockUpdates(2);
+        final long inner = profiler.begin(RedstoneImplementation.VANILLA);
+        profiler.blockUpdates(6);
+        profiler.end(inner);
+        profiler.blockUpdates(1);
+        profiler.end(outer);
+        // emitted outside of any wire update
+        profiler.blockUpdates(5);
+
+        final RedstoneProfiler.Results results = profiler.stop();
+        assertNotNull(results);
+        assertEquals(6, result(results, RedstoneImplementation.VANILLA).blockUpdates());
+        assertEquals(3, result(results, RedstoneImplementation.ALTERNATE_CURRENT).blockUpdates());
+        assertTrue(result(results, RedstoneImplementation.EIGENCRAFT).isEmpty());
+        // the outer update only counts its own time, without the nested one
+        assertTrue(result(results, RedstoneImplementation.ALTERNATE_CURRENT).nanos() >= 0);
+    }
+
+    @Test
+    public void testNotProfiling() {
+        final RedstoneProfiler profiler = new RedstoneProfiler();
+        assertNull(profiler.stop());
+        final long update = profiler.begin(RedstoneImplementation.VANILLA);
+        profiler.blockUpdates(6);
+        profiler.end(update);
+        assertFalse(profiler.isProfiling());
+
+        // updates started before profiling are not counted
+        final long before = profiler.begin(RedstoneImplementation.VANILLA);
+        profiler.start();
+        profiler.blockUpdates(6);
+        profiler.end(before);
+        final RedstoneProfiler.Results results = profiler.stop();
+        assertNotNull(results);
+        assertTrue(result(results, RedstoneImplementation.VANILLA).isEmpty());
+    }
+
+    @Test
+    public void testWorldsProfiledSeparately() {
+        final RedstoneProfiler first = new RedstoneProfiler();
+        final RedstoneProfiler second = new RedstoneProfiler();
+        first.start();
+        second.start();
+        final long update = first.begin(RedstoneImplementation.EIGENCRAFT);
+        first.blockUpdates(4);
+        // block updates in another world during the update are not attributed to it
+        second.blockUpdates(3);
+        first.end(update);
+
+        final RedstoneProfiler.Results firstResults = first.stop();
+        final RedstoneProfiler.Results secondResults = second.stop();
+        assertNotNull(firstResults);
+        assertNotNull(secondResults);
+        assertEquals(4, result(firstResults, RedstoneImplementation.EIGENCRAFT).blockUpdates());
+        assertTrue(result(secondResults, RedstoneImplementation.EIGENCRAFT).isEmpty());
+    }
+}
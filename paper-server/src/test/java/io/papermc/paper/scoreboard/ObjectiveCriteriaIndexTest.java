@@ -0,0 +1,70 @@
+package io.papermc.paper.scoreboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.ServerScoreboard;
+import net.minecraft.world.scores.Objective;
+import net.minecraft.world.scores.ScoreAccess;
+import net.minecraft.world.scores.ScoreHolder;
+import net.minecraft.world.scores.criteria.ObjectiveCriteria;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@VanillaFeature
+public class ObjectiveCriteriaIndexTest {
+
+    private static final ScoreHolder HOLDER = ScoreHolder.forNameOnly("Notch");
+
+    private final ObjectiveCriteriaIndex index = new ObjectiveCriteriaIndex();
+
+    private static Objective addObjective(final ServerScoreboard scoreboard, final String name, final ObjectiveCriteria criteria) {
+        return scoreboard.addObjective(name, criteria, Component.literal(name), ObjectiveCriteria.RenderType.INTEGER, false, null);
+    }
+
+    private int visited(final ObjectiveCriteria criteria) {
+        final List<ScoreAccess> scores = new ArrayList<>();
+        this.index.forAllObjectives(criteria, HOLDER, scores::add);
+        return scores.size();
+    }
+
+    @Test
+    public void testOnlyMatchingObjectives() {
+        final ServerScoreboard health = new ServerScoreboard(null);
+        addObjective(health, "health", ObjectiveCriteria.HEALTH);
+        // objectives existing before registering are indexed too
+        this.index.register(health);
+
+        final ServerScoreboard food = new ServerScoreboard(null);
+        this.index.register(food);
+        addObjective(food, "food", ObjectiveCriteria.FOOD);
+        addObjective(food, "health", ObjectiveCriteria.HEALTH);
+
+        assertEquals(2, this.visited(ObjectiveCriteria.HEALTH));
+        assertEquals(1, this.visited(ObjectiveCriteria.FOOD));
+        assertEquals(0, this.visited(ObjectiveCriteria.AIR));
+    }
+
+    @Test
+    public void testRemovedObjectives() {
+        final ServerScoreboard scoreboard = new ServerScoreboard(null);
+        this.index.register(scoreboard);
+        final Objective first = addObjective(scoreboard, "first", ObjectiveCriteria.HEALTH);
+        final Objective second = addObjective(scoreboard, "second", ObjectiveCriteria.HEALTH);
+        assertEquals(2, this.visited(ObjectiveCriteria.HEALTH));
+
+        scoreboard.removeObjective(first);
+        assertEquals(1, this.visited(ObjectiveCriteria.HEALTH));
+        scoreboard.removeObjective(second);
+        assertEquals(0, this.visited(ObjectiveCriteria.HEALTH));
+    }
+
+    @Test
+    public void testUnregisteredScoreboard() {
+        final ServerScoreboard scoreboard = new ServerScoreboard(null);
+        addObjective(scoreboard, "health", ObjectiveCriteria.HEALTH);
+        assertEquals(0, this.visited(ObjectiveCriteria.HEALTH));
+    }
+}
@@ -0,0 +1,87 @@
+package io.papermc.paper.scoreboard;
+
+import java.util.List;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundResetScorePacket;
+import net.minecraft.network.protocol.game.ClientboundSetDisplayObjectivePacket;
+import net.minecraft.network.protocol.game.ClientboundSetObjectivePacket;
+import net.minecraft.network.protocol.game.ClientboundSetPlayerTeamPacket;
+import net.minecraft.network.protocol.game.ClientboundSetScorePacket;
+import net.minecraft.world.scores.DisplaySlot;
+import net.minecraft.world.scores.Objective;
+import net.minecraft.world.scores.PlayerTeam;
+import net.minecraft.world.scores.ScoreHolder;
+import net.minecraft.world.scores.Scoreboard;
+import net.minecraft.world.scores.criteria.ObjectiveCriteria;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@VanillaFeature
+public class ScoreboardTransitionTest {
+
+    private static Scoreboard sidebar(final int coins, final String... teamMembers) {
+        final Scoreboard scoreboard = new Scoreboard();
+        final Objective objective = scoreboard.addObjective(
+            "sidebar", ObjectiveCriteria.DUMMY, Component.literal("Server"), ObjectiveCriteria.RenderType.INTEGER, false, null
+        );
+        scoreboard.setDisplayObjective(DisplaySlot.SIDEBAR, objective);
+        scoreboard.getOrCreatePlayerScore(ScoreHolder.forNameOnly("Coins"), objective).set(coins);
+        scoreboard.getOrCreatePlayerScore(ScoreHolder.forNameOnly("Online"), objective).set(10);
+        final PlayerTeam team = scoreboard.addPlayerTeam("red");
+        for (final String member : teamMembers) {
+            scoreboard.addPlayerToTeam(member, team);
+        }
+        return scoreboard;
+    }
+
+    @Test
+    public void testEqualBoards() {
+        assertTrue(ScoreboardTransition.packets(sidebar(5, "a"), sidebar(5, "a")).isEmpty());
+    }
+
+    @Test
+    public void testChangedScore() {
+        final List<Packet<? super ClientGamePacketListener>> packets = ScoreboardTransition.packets(sidebar(5), sidebar(6));
+        assertEquals(1, packets.size());
+        final ClientboundSetScorePacket packet = assertInstanceOf(ClientboundSetScorePacket.class, packets.getFirst());
+        assertEquals("Coins", packet.owner());
+        assertEquals(6, packet.score());
+    }
+
+    @Test
+    public void testRemovedScore() {
+        final Scoreboard to = sidebar(5);
+        to.resetSinglePlayerScore(ScoreHolder.forNameOnly("Online"), to.getObjective("sidebar"));
+        final List<Packet<? super ClientGamePacketListener>> packets = ScoreboardTransition.packets(sidebar(5), to);
+        assertEquals(1, packets.size());
+        assertInstanceOf(ClientboundResetScorePacket.class, packets.getFirst());
+    }
+
+    @Test
+    public void testChangedTeamMembers() {
+        final List<Packet<? super ClientGamePacketListener>> packets = ScoreboardTransition.packets(sidebar(5, "a", "b"), sidebar(5, "b", "c"));
+        assertEquals(2, packets.size());
+        // the removal comes first
+        assertEquals(List.of("a"), ((ClientboundSetPlayerTeamPacket) packets.get(0)).getPlayers());
+        assertEquals(List.of("c"), ((ClientboundSetPlayerTeamPacket) packets.get(1)).getPlayers());
+    }
+
+    @Test
+    public void testEmptyBoard() {
+        final List<Packet<? super ClientGamePacketListener>> packets = ScoreboardTransition.packets(new Scoreboard(), sidebar(5));
+        // team, objective, two scores and the display slot
+        assertEquals(5, packets.size());
+        assertInstanceOf(ClientboundSetPlayerTeamPacket.class, packets.get(0));
+        assertInstanceOf(ClientboundSetObjectivePacket.class, packets.get(1));
+        assertInstanceOf(ClientboundSetDisplayObjectivePacket.class, packets.get(4));
+
+        // removing the objective clears its display slot on the client
+        assertEquals(2, ScoreboardTransition.packets(sidebar(5), new Scoreboard()).size());
+    }
+}
@@ -0,0 +1,168 @@
+package io.papermc.paper.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Normal
+public class JournaledJsonListTest {
+
+    private static final Gson GSON = new Gson();
+
+    record Entry(String name, int value) {
+        JsonObject serialize() {
+            final JsonObject json = new JsonObject();
+            json.addProperty("name", this.name);
+            json.addProperty("value", this.value);
+            return json;
+        }
+    }
+
+    private static JournaledJsonList<String, Entry> create(final Path file) {
+        return new JournaledJsonList<>(file.toFile(), GSON, Entry::serialize);
+    }
+
+    private static Set<JsonElement> read(final Path file) throws IOException {
+        final JsonArray array = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonArray();
+        final Set<JsonElement> elements = new HashSet<>();
+        array.forEach(elements::add);
+        assertEquals(array.size(), elements.size(), "snapshot contains duplicates");
+        return elements;
+    }
+
+    private static void put(final Map<String, Entry> map, final String name, final int value) {
+        map.put(name, new Entry(name, value));
+    }
+
+    @Test
+    public void testChangesAreJournaled(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("ops.json");
+        final Path journal = dir.resolve("ops.json.journal");
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        put(entries, "a", 1);
+        put(entries, "b", 2);
+
+        final JournaledJsonList<String, Entry> list = create(file);
+        list.save(() -> entries, true);
+        assertFalse(Files.exists(journal), "first save must write a full snapshot");
+        assertEquals(Set.of(new Entry("a", 1).serialize(), new Entry("b", 2).serialize()), read(file));
+
+        put(entries, "b", 3);
+        put(entries, "c", 4);
+        entries.remove("a");
+        list.save(() -> entries, true);
+        assertTrue(list.isActive());
+        assertEquals(4, Files.readAllLines(journal).size(), "expected remove+add for b, add for c and remove for a");
+        assertEquals(Set.of(new Entry("a", 1).serialize(), new Entry("b", 2).serialize()), read(file), "snapshot must not be rewritten");
+
+        list.save(() -> entries, true);
+        assertEquals(4, Files.readAllLines(journal).size(), "saving without changes must not append");
+    }
+
+    @Test
+    public void testJournalIsMergedOnCreation(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("usercache.json");
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        put(entries, "a", 1);
+        put(entries, "b", 2);
+
+        final JournaledJsonList<String, Entry> list = create(file);
+        list.save(() -> entries, true);
+        put(entries, "a", 5);
+        entries.remove("b");
+        list.save(() -> entries, true);
+
+        // simulate a torn write at the end of the journal
+        Files.writeString(dir.resolve("usercache.json.journal"), "{\"op\":\"add\",\"ent", StandardCharsets.UTF_8, java.nio.file.StandardOpenOption.APPEND);
+
+        create(file);
+        assertFalse(Files.exists(dir.resolve("usercache.json.journal")));
+        assertEquals(Set.of(new Entry("a", 5).serialize()), read(file));
+    }
+
+    @Test
+    public void testFullSaveDiscardsJournal(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("banned-players.json");
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        put(entries, "a", 1);
+
+        final JournaledJsonList<String, Entry> list = create(file);
+        list.save(() -> entries, true);
+        put(entries, "b", 2);
+        list.save(() -> entries, true);
+        assertTrue(list.isActive());
+
+        list.save(() -> entries, false);
+        assertFalse(list.isActive());
+        assertFalse(Files.exists(dir.resolve("banned-players.json.journal")));
+        assertEquals(Set.of(new Entry("a", 1).serialize(), new Entry("b", 2).serialize()), read(file));
+    }
+
+    @Test
+    public void testStaleCompactionSkipped(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("usercache.json");
+        final Queue<Runnable> queued = new ArrayDeque<>();
+        final JournaledJsonList<String, Entry> list = new JournaledJsonList<>(file.toFile(), GSON, Entry::serialize, queued::add);
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        list.save(() -> entries, true);
+
+        // enough changes to rotate the journal, the compaction stays queued
+        for (int i = 0; i < 1024; ++i) {
+            put(entries, "e" + i, i);
+        }
+        list.save(() -> entries, true);
+        assertEquals(1, queued.size());
+        assertTrue(Files.exists(dir.resolve("usercache.json.journal.compacting")));
+
+        // a full save, like the one on shutdown, must not be overwritten by the older compaction
+        entries.clear();
+        put(entries, "a", 1);
+        list.save(() -> entries, false);
+        queued.remove().run();
+        assertFalse(list.isActive());
+        assertFalse(Files.exists(dir.resolve("usercache.json.journal.compacting")));
+        assertEquals(Set.of(new Entry("a", 1).serialize()), read(file));
+    }
+
+    @Test
+    public void testCompactionWritesRotatedEntries(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("usercache.json");
+        final Queue<Runnable> queued = new ArrayDeque<>();
+        final JournaledJsonList<String, Entry> list = new JournaledJsonList<>(file.toFile(), GSON, Entry::serialize, queued::add);
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        list.save(() -> entries, true);
+        for (int i = 0; i < 1024; ++i) {
+            put(entries, "e" + i, i);
+        }
+        list.save(() -> entries, true);
+
+        // later changes go to the new journal and must not leak into the compacted snapshot
+        entries.clear();
+        list.save(() -> entries, true);
+        queued.remove().run();
+        assertFalse(Files.exists(dir.resolve("usercache.json.journal.compacting")));
+        assertEquals(1024, read(file).size());
+
+        create(file);
+        assertEquals(Set.of(), read(file), "the new journal must be replayed on top of the compacted snapshot");
+    }
+}
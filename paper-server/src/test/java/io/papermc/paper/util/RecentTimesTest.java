@@ -0,0 +1,48 @@
+package io.papermc.paper.util;
+
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Normal
+public class RecentTimesTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    public void testEmpty() {
+        final RecentTimes times = new RecentTimes(4);
+        assertEquals(0, times.size());
+        assertEquals(0.0, times.getAverageMillis());
+        assertThrows(IllegalArgumentException.class, () -> new RecentTimes(0));
+    }
+
+    @Test
+    public void testAverageOfFilledSlots() {
+        final RecentTimes times = new RecentTimes(4);
+        times.add(2 * MILLIS);
+        times.add(4 * MILLIS);
+        // the empty slots do not count
+        assertEquals(2, times.size());
+        assertEquals(3.0, times.getAverageMillis(), 1.0E-9);
+    }
+
+    @Test
+    public void testOldestTimesReplaced() {
+        final RecentTimes times = new RecentTimes(4);
+        for (int i = 0; i < 4; ++i) {
+            times.add(100 * MILLIS);
+        }
+        for (int i = 0; i < 4; ++i) {
+            times.add(MILLIS);
+        }
+        // none of the first runs is left behind
+        assertEquals(4, times.size());
+        assertEquals(1.0, times.getAverageMillis(), 1.0E-9);
+
+        times.add(5 * MILLIS);
+        assertEquals(2.0, times.getAverageMillis(), 1.0E-9);
+    }
+}
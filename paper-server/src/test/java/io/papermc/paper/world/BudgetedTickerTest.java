@@ -0,0 +1,83 @@
+package io.papermc.paper.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Normal
+public class BudgetedTickerTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final Predicate<Integer> NO_PRIORITY = object -> false;
+
+    private long now;
+    private final BudgetedTicker<Integer> ticker = new BudgetedTicker<>(() -> this.now);
+
+    private List<Integer> tick(final int budgetMillis, final int objects, final int overBudgetAt, final Predicate<Integer> priority) {
+        final List<Integer> ticked = new ArrayList<>();
+        this.ticker.start(budgetMillis);
+        for (int i = 0; i < objects; i++) {
+            if (i == overBudgetAt) {
+                this.now += 2 * MILLIS;
+            }
+            if (this.ticker.shouldTick(i, priority)) {
+                ticked.add(i);
+            }
+        }
+        this.ticker.finish();
+        return ticked;
+    }
+
+    private static List<Integer> range(final int from, final int to) {
+        final List<Integer> range = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+
+    @Test
+    public void testDisabledBudgetTicksEverything() {
+        assertEquals(range(0, 16), this.tick(0, 16, 0, NO_PRIORITY));
+        assertEquals(range(0, 16), this.tick(-1, 16, 0, NO_PRIORITY));
+        this.ticker.start(-1);
+        assertEquals(0, this.ticker.getDeferredLastTick());
+        assertEquals(0L, this.ticker.getDeferredTotal());
+    }
+
+    @Test
+    public void testRemainingObjectsDeferred() {
+        // the clock is only checked every few objects, the first check after running over budget is at the ninth one
+        assertEquals(range(0, 8), this.tick(1, 16, 4, NO_PRIORITY));
+
+        this.ticker.start(1);
+        assertEquals(8, this.ticker.getDeferredLastTick());
+        assertEquals(8L, this.ticker.getDeferredTotal());
+    }
+
+    @Test
+    public void testPriorityObjectsNotDeferred() {
+        final List<Integer> ticked = this.tick(1, 16, 8, object -> object % 2 == 0);
+
+        final List<Integer> expected = range(0, 8);
+        expected.addAll(List.of(8, 10, 12, 14));
+        assertEquals(expected, ticked);
+    }
+
+    @Test
+    public void testDeferredObjectsTickedNextTick() {
+        // 8 objects took 2ms, the 8 deferred ones are expected to take 2ms as well, which is reserved from the next budget
+        assertEquals(range(0, 8), this.tick(1, 16, 8, NO_PRIORITY));
+        // so the objects which ticked before now yield to the deferred ones
+        assertEquals(range(8, 16), this.tick(1, 16, -1, NO_PRIORITY));
+        assertEquals(range(0, 8), this.tick(1, 16, -1, NO_PRIORITY));
+
+        this.ticker.start(1);
+        assertEquals(8, this.ticker.getDeferredLastTick());
+        assertEquals(24L, this.ticker.getDeferredTotal());
+    }
+}
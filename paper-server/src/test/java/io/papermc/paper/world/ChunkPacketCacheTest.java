@@ -0,0 +1,91 @@
+package io.papermc.paper.world;
+
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Normal
+public class ChunkPacketCacheTest {
+
+    private int tick;
+    private int created;
+    private final ChunkPacketCache cache = new ChunkPacketCache(() -> this.tick, (chunk, modifyBlocks) -> {
+        ++this.created;
+        return mock(ClientboundLevelChunkWithLightPacket.class);
+    });
+
+    private static LevelChunk chunk(final int x, final int z) {
+        final LevelChunk chunk = mock(LevelChunk.class);
+        when(chunk.getPos()).thenReturn(new ChunkPos(x, z));
+        return chunk;
+    }
+
+    @Test
+    public void testPacketShared() {
+        final LevelChunk chunk = chunk(0, 0);
+
+        final ClientboundLevelChunkWithLightPacket packet = this.cache.getOrCreate(chunk, false, 16);
+        assertSame(packet, this.cache.getOrCreate(chunk, false, 16));
+        // obfuscated packets are cached separately
+        assertNotSame(packet, this.cache.getOrCreate(chunk, true, 16));
+
+        assertEquals(2, this.created);
+        assertEquals(1, this.cache.getHits());
+        assertEquals(2, this.cache.getMisses());
+    }
+
+    @Test
+    public void testReloadedChunkUsesPosition() {
+        // the entry does not hold the chunk, a new chunk object at the same position shares it until invalidated
+        final ClientboundLevelChunkWithLightPacket packet = this.cache.getOrCreate(chunk(1, 2), false, 16);
+        assertSame(packet, this.cache.getOrCreate(chunk(1, 2), false, 16));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final LevelChunk chunk = chunk(3, -4);
+
+        final ClientboundLevelChunkWithLightPacket packet = this.cache.getOrCreate(chunk, false, 16);
+        this.cache.invalidate(ChunkPos.asLong(3, -4));
+        assertEquals(0, this.cache.size());
+        assertNotSame(packet, this.cache.getOrCreate(chunk, false, 16));
+        assertEquals(0, this.cache.getHits());
+        assertEquals(2, this.cache.getMisses());
+    }
+
+    @Test
+    public void testEntriesExpire() {
+        final LevelChunk chunk = chunk(0, 0);
+
+        final ClientboundLevelChunkWithLightPacket packet = this.cache.getOrCreate(chunk, false, 16);
+        this.tick += ChunkPacketCache.MAX_AGE_TICKS;
+        assertSame(packet, this.cache.getOrCreate(chunk, false, 16));
+        ++this.tick;
+        assertNotSame(packet, this.cache.getOrCreate(chunk, false, 16));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        final LevelChunk first = chunk(0, 0);
+        final LevelChunk second = chunk(1, 0);
+        final LevelChunk third = chunk(2, 0);
+
+        final ClientboundLevelChunkWithLightPacket firstPacket = this.cache.getOrCreate(first, false, 2);
+        final ClientboundLevelChunkWithLightPacket secondPacket = this.cache.getOrCreate(second, false, 2);
+        // using the first chunk again makes the second one the least recently used
+        this.cache.getOrCreate(first, false, 2);
+        this.cache.getOrCreate(third, false, 2);
+
+        assertEquals(2, this.cache.size());
+        assertSame(firstPacket, this.cache.getOrCreate(first, false, 2));
+        assertNotSame(secondPacket, this.cache.getOrCreate(second, false, 2));
+    }
+}
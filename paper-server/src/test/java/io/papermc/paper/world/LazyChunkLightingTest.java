@@ -0,0 +1,100 @@
+package io.papermc.paper.world;
+
+import ca.spottedleaf.concurrentutil.util.Priority;
+import ca.spottedleaf.moonrise.patches.chunk_system.player.RegionizedPlayerChunkLoader;
+import ca.spottedleaf.moonrise.patches.chunk_system.scheduling.ChunkHolderManager;
+import ca.spottedleaf.moonrise.patches.starlight.light.StarLightInterface;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ThreadedLevelLightEngine;
+import net.minecraft.server.level.Ticket;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@VanillaFeature
+public class LazyChunkLightingTest {
+
+    private static final int FULL = ChunkHolderManager.FULL_LOADED_TICKET_LEVEL;
+    // a player at chunk 0, 0 with a send distance of 8
+    private static final int[] PLAYERS = {0, 0, 8};
+
+    private static List<Ticket> tickets(final TicketType... types) {
+        return Arrays.stream(types).map(type -> new Ticket(type, FULL)).toList();
+    }
+
+    @Test
+    public void testBorderRingDeferred() {
+        // just outside the send distance, loaded by the player
+        assertTrue(LazyChunkLighting.shouldDefer(9, 0, FULL, tickets(RegionizedPlayerChunkLoader.PLAYER_TICKET), PLAYERS));
+        assertTrue(LazyChunkLighting.shouldDefer(9, -9, FULL, tickets(RegionizedPlayerChunkLoader.PLAYER_TICKET_DELAYED), PLAYERS));
+        // only loaded as the neighbour of other chunks
+        assertTrue(LazyChunkLighting.shouldDefer(20, 20, FULL, List.of(), PLAYERS));
+    }
+
+    @Test
+    public void testVisibleOrKeptLoadedChunksLit() {
+        // within the send distance
+        assertFalse(LazyChunkLighting.shouldDefer(8, -8, FULL, tickets(RegionizedPlayerChunkLoader.PLAYER_TICKET), PLAYERS));
+        // ticking
+        assertFalse(LazyChunkLighting.shouldDefer(20, 20, FULL - 1, List.of(), PLAYERS));
+        // kept loaded by a plugin or as a spawn chunk
+        assertFalse(LazyChunkLighting.shouldDefer(20, 20, FULL, tickets(RegionizedPlayerChunkLoader.PLAYER_TICKET, TicketType.PLUGIN_TICKET), PLAYERS));
+        assertFalse(LazyChunkLighting.shouldDefer(20, 20, FULL, tickets(TicketType.START), PLAYERS));
+    }
+
+    @Test
+    public void testDeferredChunkLitWhenSent() {
+        final ServerLevel level = mock(ServerLevel.class);
+        final ServerChunkCache chunkSource = mock(ServerChunkCache.class);
+        final ThreadedLevelLightEngine threadedLightEngine = mock(ThreadedLevelLightEngine.class);
+        final StarLightInterface lightEngine = mock(StarLightInterface.class);
+        final StarLightInterface.ServerLightQueue lightQueue = mock(StarLightInterface.ServerLightQueue.class);
+        when(level.getChunkSource()).thenReturn(chunkSource);
+        when(chunkSource.getLightEngine()).thenReturn(threadedLightEngine);
+        when(threadedLightEngine.starlight$getLightEngine()).thenReturn(lightEngine);
+        when(lightEngine.getServerLightQueue()).thenReturn(lightQueue);
+
+        final ChunkAccess chunk = mock(ChunkAccess.class);
+        when(chunk.getSections()).thenReturn(new LevelChunkSection[0]);
+        when(level.moonrise$getAnyChunkIfLoaded(9, 0)).thenReturn(chunk);
+
+        final LazyChunkLighting lighting = new LazyChunkLighting(level);
+        lighting.markDeferred(9, 0);
+        assertEquals(1, lighting.getStats().pending());
+
+        // the player chunk loader waits for the light before sending the chunk
+        assertFalse(lighting.requestLight(9, 0));
+        final ArgumentCaptor<BooleanSupplier> task = ArgumentCaptor.forClass(BooleanSupplier.class);
+        verify(lightQueue).queueChunkLightTask(eq(new ChunkPos(9, 0)), task.capture(), eq(Priority.HIGHER));
+        verify(lightEngine, never()).lightChunk(any(), any());
+
+        assertTrue(task.getValue().getAsBoolean());
+        verify(lightEngine).lightChunk(eq(chunk), any());
+        verify(chunk).setLightCorrect(true);
+
+        assertTrue(lighting.requestLight(9, 0));
+        final LazyChunkLighting.Stats stats = lighting.getStats();
+        assertEquals(0, stats.pending());
+        assertEquals(1, stats.deferred());
+        assertEquals(1, stats.litOnDemand());
+        assertEquals(0, stats.litInBackground());
+    }
+}
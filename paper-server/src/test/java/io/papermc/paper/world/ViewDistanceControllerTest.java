@@ -0,0 +1,85 @@
+package io.papermc.paper.world;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import io.papermc.paper.event.player.PlayerAdaptiveViewDistanceChangeEvent;
+import net.minecraft.server.level.ServerPlayer;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+@Normal
+public class ViewDistanceControllerTest {
+
+    private static final double HEALTHY_MSPT = 10.0;
+    private static final double OVERLOADED_MSPT = 50.0;
+
+    private final ServerPlayer player = mock(ServerPlayer.class);
+    private final ViewDistanceController controller = new ViewDistanceController();
+    private final GlobalConfiguration.AdaptiveViewDistance config = mock(GlobalConfiguration.class).new AdaptiveViewDistance();
+
+    {
+        this.config.enabled = true;
+        this.config.evaluationInterval = 1;
+    }
+
+    // what the chunk loader does when it updates the player with a send and simulation distance of 10
+    private void updateLoader() {
+        final int tickDistance = this.controller.limitTickDistance(10);
+        this.controller.limitLoadDistance(tickDistance, 11);
+        this.controller.limitSendDistance(10);
+    }
+
+    private static void assertChange(final PlayerAdaptiveViewDistanceChangeEvent event, final int previousSend, final int send,
+                                     final int previousSimulation, final int simulation, final PlayerAdaptiveViewDistanceChangeEvent.Cause cause) {
+        assertNotNull(event);
+        assertEquals(previousSend, event.getPreviousSendViewDistance());
+        assertEquals(send, event.getSendViewDistance());
+        assertEquals(previousSimulation, event.getPreviousSimulationDistance());
+        assertEquals(simulation, event.getSimulationDistance());
+        assertEquals(cause, event.getCause());
+    }
+
+    @Test
+    public void testDisabled() {
+        this.config.enabled = false;
+        this.updateLoader();
+        assertNull(this.controller.tick(this.player, 0, this.config, OVERLOADED_MSPT));
+        assertEquals(10, this.controller.limitSendDistance(10));
+    }
+
+    @Test
+    public void testChangeReturnedForLater() {
+        this.updateLoader();
+        // the event is handed to the chunk loader, which calls it after updating every player
+        assertChange(this.controller.tick(this.player, 0, this.config, OVERLOADED_MSPT),
+            10, 9, 10, 9, PlayerAdaptiveViewDistanceChangeEvent.Cause.SERVER_LOAD);
+        assertEquals(9, this.controller.limitTickDistance(10));
+        assertEquals(9, this.controller.limitSendDistance(10));
+    }
+
+    @Test
+    public void testGenerationBacklogOnlyShrinksSendDistance() {
+        this.updateLoader();
+        assertChange(this.controller.tick(this.player, this.config.generationBacklog + 1, this.config, HEALTHY_MSPT),
+            10, 9, 10, 10, PlayerAdaptiveViewDistanceChangeEvent.Cause.GENERATION_BACKLOG);
+    }
+
+    @Test
+    public void testGrowsAfterHealthyEvaluations() {
+        this.updateLoader();
+        assertNotNull(this.controller.tick(this.player, 0, this.config, OVERLOADED_MSPT));
+        this.updateLoader();
+
+        for (int i = 1; i < this.config.healthyEvaluationsToGrow; ++i) {
+            assertNull(this.controller.tick(this.player, 0, this.config, HEALTHY_MSPT));
+        }
+        assertChange(this.controller.tick(this.player, 0, this.config, HEALTHY_MSPT),
+            9, 10, 9, 10, PlayerAdaptiveViewDistanceChangeEvent.Cause.RECOVERED);
+        this.updateLoader();
+        assertEquals(10, this.controller.limitSendDistance(10));
+    }
+}
@@ -0,0 +1,60 @@
+package io.papermc.paper.world.pregen;
+
+import ca.spottedleaf.moonrise.common.util.CoordinateUtils;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Normal
+public class PregenShapeTest {
+
+    private static int ring(final long region, final int centerRegionX, final int centerRegionZ) {
+        return Math.max(Math.abs(CoordinateUtils.getChunkX(region) - centerRegionX), Math.abs(CoordinateUtils.getChunkZ(region) - centerRegionZ));
+    }
+
+    @Test
+    public void testRegionsAroundSingleRegion() {
+        assertArrayEquals(new long[]{CoordinateUtils.getChunkKey(1, 0)}, PregenShape.regionsAround(40, 8, 0));
+        assertArrayEquals(new long[]{CoordinateUtils.getChunkKey(-1, -1)}, PregenShape.regionsAround(-1, -32, 0));
+    }
+
+    @Test
+    public void testRegionsAroundCenterFirst() {
+        // the radius crosses the border of the regions around chunk 0, 0
+        assertArrayEquals(new long[]{
+            CoordinateUtils.getChunkKey(0, 0),
+            CoordinateUtils.getChunkKey(-1, -1),
+            CoordinateUtils.getChunkKey(0, -1),
+            CoordinateUtils.getChunkKey(-1, 0)
+        }, PregenShape.regionsAround(0, 0, 16));
+
+        final long[] regions = PregenShape.regionsAround(0, 0, 40);
+        assertEquals(16, regions.length);
+        assertEquals(CoordinateUtils.getChunkKey(0, 0), regions[0]);
+        for (int i = 1; i < regions.length; ++i) {
+            assertTrue(ring(regions[i - 1], 0, 0) <= ring(regions[i], 0, 0));
+        }
+    }
+
+    @Test
+    public void testCountChunks() {
+        assertEquals(1L, new PregenShape.Square(5, 5, 0).countChunks());
+        // spread over four regions
+        assertEquals(33L * 33L, new PregenShape.Square(0, 0, 16).countChunks());
+        assertEquals(5L, new PregenShape.Circle(0, 0, 1).countChunks());
+        assertEquals(13L, new PregenShape.Circle(31, 31, 2).countChunks());
+        assertEquals(2L * PregenShape.REGION_SIZE * PregenShape.REGION_SIZE,
+            new PregenShape.Regions(new long[]{CoordinateUtils.getChunkKey(0, 0), CoordinateUtils.getChunkKey(-3, 7)}).countChunks());
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals(new PregenShape.Square(1, 2, 3), PregenShape.parse("SQUARE", 1, 2, 3));
+        assertEquals(new PregenShape.Circle(1, 2, 3), PregenShape.parse("circle", 1, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> PregenShape.parse("triangle", 0, 0, 1));
+    }
+}
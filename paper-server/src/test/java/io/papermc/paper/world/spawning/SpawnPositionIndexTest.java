@@ -0,0 +1,89 @@
+package io.papermc.paper.world.spawning;
+
+import net.minecraft.world.entity.MobCategory;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import org.bukkit.support.RegistryHelper;
+import org.bukkit.support.environment.VanillaFeature;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@VanillaFeature
+public class SpawnPositionIndexTest {
+
+    @Test
+    public void testBlockMediums() {
+        assertEquals(SpawnPositionIndex.MEDIUM_OPEN, SpawnPositionIndex.mediumOf(Blocks.AIR.defaultBlockState()));
+        assertEquals(SpawnPositionIndex.MEDIUM_OPEN, SpawnPositionIndex.mediumOf(Blocks.SHORT_GRASS.defaultBlockState()));
+        assertEquals(SpawnPositionIndex.MEDIUM_OPEN, SpawnPositionIndex.mediumOf(Blocks.OAK_SLAB.defaultBlockState()));
+        assertEquals(SpawnPositionIndex.MEDIUM_WATER, SpawnPositionIndex.mediumOf(Blocks.WATER.defaultBlockState()));
+        assertEquals(SpawnPositionIndex.MEDIUM_WATER, SpawnPositionIndex.mediumOf(Blocks.KELP.defaultBlockState()));
+        assertEquals(SpawnPositionIndex.MEDIUM_NONE, SpawnPositionIndex.mediumOf(Blocks.STONE.defaultBlockState()));
+        assertEquals(SpawnPositionIndex.MEDIUM_NONE, SpawnPositionIndex.mediumOf(Blocks.LAVA.defaultBlockState()));
+        assertEquals(SpawnPositionIndex.MEDIUM_NONE, SpawnPositionIndex.mediumOf(Blocks.REDSTONE_BLOCK.defaultBlockState()));
+    }
+
+    @Test
+    public void testCategoryMediums() {
+        assertEquals(SpawnPositionIndex.MEDIUM_OPEN, SpawnPositionIndex.mediumOf(MobCategory.MONSTER));
+        assertEquals(SpawnPositionIndex.MEDIUM_OPEN, SpawnPositionIndex.mediumOf(MobCategory.AMBIENT));
+        assertEquals(SpawnPositionIndex.MEDIUM_WATER, SpawnPositionIndex.mediumOf(MobCategory.AXOLOTLS));
+        assertEquals(SpawnPositionIndex.MEDIUM_NONE, SpawnPositionIndex.mediumOf(MobCategory.MISC));
+    }
+
+    private static void assertCounts(final LevelChunkSection section, final int open, final int water) {
+        assertEquals(open, section.getSpawnPositionCount(SpawnPositionIndex.MEDIUM_OPEN));
+        assertEquals(water, section.getSpawnPositionCount(SpawnPositionIndex.MEDIUM_WATER));
+    }
+
+    private static void assertSectionCounts() {
+        final LevelChunkSection section = new LevelChunkSection(RegistryHelper.getBiomes(), null, null, 0);
+        assertCounts(section, 16 * 16 * 16, 0);
+
+        section.setBlockState(0, 0, 0, Blocks.STONE.defaultBlockState());
+        section.setBlockState(1, 0, 0, Blocks.WATER.defaultBlockState());
+        assertCounts(section, 16 * 16 * 16 - 2, 1);
+
+        // replacing a block moves it between the counts
+        section.setBlockState(0, 0, 0, Blocks.WATER.defaultBlockState());
+        section.setBlockState(1, 0, 0, Blocks.SHORT_GRASS.defaultBlockState());
+        assertCounts(section, 16 * 16 * 16 - 1, 1);
+
+        // the incremental counts match a full recount
+        section.recalcBlockCounts();
+        assertCounts(section, 16 * 16 * 16 - 1, 1);
+    }
+
+    @Test
+    public void testSectionCounts() {
+        SpawnPositionIndex.setEnabled(true);
+        try {
+            assertSectionCounts();
+        } finally {
+            SpawnPositionIndex.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testSectionCountsWhileDisabled() {
+        // block changes are not counted, the section counts its blocks again when it is used
+        assertSectionCounts();
+    }
+
+    @Test
+    public void testSectionCountsAfterEnabling() {
+        final LevelChunkSection section = new LevelChunkSection(RegistryHelper.getBiomes(), null, null, 0);
+        section.setBlockState(0, 0, 0, Blocks.STONE.defaultBlockState());
+
+        SpawnPositionIndex.setEnabled(true);
+        try {
+            section.setBlockState(1, 0, 0, Blocks.WATER.defaultBlockState());
+            assertCounts(section, 16 * 16 * 16 - 2, 1);
+            section.setBlockState(0, 0, 0, Blocks.AIR.defaultBlockState());
+            assertCounts(section, 16 * 16 * 16 - 1, 1);
+        } finally {
+            SpawnPositionIndex.setEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.papermc.paper.world.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Normal
+public class PlayerDataWriterTest {
+
+    private static CompoundTag tag(final int value) {
+        final CompoundTag tag = new CompoundTag();
+        tag.putInt("value", value);
+        return tag;
+    }
+
+    @Test
+    public void testLatestSaveIsWritten(@TempDir final Path dir) throws IOException {
+        final PlayerDataWriter writer = new PlayerDataWriter(dir, () -> true);
+        final UUID uuid = UUID.randomUUID();
+        for (int i = 0; i < 100; ++i) {
+            writer.submit(uuid, tag(i));
+        }
+        writer.flush();
+
+        assertFalse(writer.isBusy());
+        assertNull(writer.getPending(uuid));
+        assertEquals(tag(99), NbtIo.readCompressed(dir.resolve(uuid + ".dat"), NbtAccounter.unlimitedHeap()));
+        assertNoTempFiles(dir, uuid);
+    }
+
+    private static void assertNoTempFiles(final Path dir, final UUID uuid) throws IOException {
+        try (final var files = Files.list(dir)) {
+            assertEquals(0, files.filter(file -> !file.getFileName().toString().startsWith(uuid.toString() + ".dat")).count(), "temporary files left behind");
+        }
+    }
+
+    @Test
+    public void testFlushWritesWhenWriterThreadDied(@TempDir final Path dir) throws IOException {
+        final AtomicBoolean failed = new AtomicBoolean();
+        final PlayerDataWriter writer = new PlayerDataWriter(dir, () -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new AssertionError("simulated writer failure");
+            }
+            return false;
+        });
+        final UUID uuid = UUID.randomUUID();
+        writer.submit(uuid, tag(1));
+        writer.flush();
+
+        assertTrue(failed.get());
+        assertFalse(writer.isBusy());
+        assertEquals(tag(1), NbtIo.readCompressed(dir.resolve(uuid + ".dat"), NbtAccounter.unlimitedHeap()));
+        // the temporary file written by the failed batch is deleted
+        assertNoTempFiles(dir, uuid);
+
+        // a new thread is started for the next save
+        writer.submit(uuid, tag(2));
+        writer.flush();
+        assertEquals(tag(2), NbtIo.readCompressed(dir.resolve(uuid + ".dat"), NbtAccounter.unlimitedHeap()));
+    }
+
+    @Test
+    public void testFlushWaitsForBatchBeingWritten(@TempDir final Path dir) throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final PlayerDataWriter writer = new PlayerDataWriter(dir, () -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+            return false;
+        });
+        final UUID uuid = UUID.randomUUID();
+        writer.submit(uuid, tag(1));
+        // the batch was taken from the queue, nothing is queued anymore
+        assertTrue(writing.await(10L, TimeUnit.SECONDS));
+
+        final Thread flush = new Thread(writer::flush);
+        flush.start();
+        flush.join(200L);
+        assertTrue(flush.isAlive(), "flush returned before the batch was written");
+
+        release.countDown();
+        flush.join(10_000L);
+        assertFalse(flush.isAlive());
+        assertEquals(tag(1), NbtIo.readCompressed(dir.resolve(uuid + ".dat"), NbtAccounter.unlimitedHeap()));
+    }
+
+    @Test
+    public void testTempFilesAreDeleted(@TempDir final Path dir) throws IOException {
+        final UUID uuid = UUID.randomUUID();
+        final Path tempFile = Files.createTempFile(dir, uuid + "-", ".dat");
+        final Path[] kept = {
+            Files.createFile(dir.resolve(uuid + ".dat")),
+            Files.createFile(dir.resolve(uuid + ".dat_old")),
+            Files.createFile(dir.resolve(uuid + "_corrupted_2024-01-01_00.00.00.dat")),
+            Files.createFile(dir.resolve("notes-1.dat"))
+        };
+
+        PlayerDataWriter.deleteTempFiles(dir);
+
+        assertFalse(Files.exists(tempFile));
+        for (final Path file : kept) {
+            assertTrue(Files.exists(file), file.toString());
+        }
+    }
+}
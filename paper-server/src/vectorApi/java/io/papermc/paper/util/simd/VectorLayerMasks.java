@@ -0,0 +1,31 @@
+package io.papermc.paper.util.simd;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link LayerMasks} using the JDK Vector API, loaded by {@link LayerMasks} if {@code jdk.incubator.vector} is present.
+ */
+final class VectorLayerMasks extends LayerMasks {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    VectorLayerMasks() {
+        if (Long.SIZE % SPECIES.length() != 0) {
+            throw new IllegalStateException("Unsupported vector length " + SPECIES.length());
+        }
+    }
+
+    @Override
+    public void lessThan(final int[] values, final int y, final long[] out) {
+        final int lanes = SPECIES.length();
+        for (int i = 0; i < LONGS_PER_LAYER; ++i) {
+            long bits = 0L;
+            for (int bit = 0, base = i << 6; bit < Long.SIZE; bit += lanes) {
+                bits |= IntVector.fromArray(SPECIES, values, base | bit).compare(VectorOperators.LT, y).toLong() << bit;
+            }
+            out[i] = bits;
+        }
+    }
+}